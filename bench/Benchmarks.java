@@ -0,0 +1,191 @@
+package xadrez;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Benchmarks JMH dos caminhos quentes das regras e da busca. Cada operação percorre o corpus
+// inteiro de uma fase (abertura, meio-jogo ou final), então os números são comparáveis entre
+// versões. Rodar com o profiler gc ("gradle :bench:jmh" já passa -prof gc) para ver os bytes
+// alocados por operação (gc.alloc.rate.norm).
+//
+// Position guarda lances legais, xeques e cravadas sob a chave da posição: chamar duas vezes na
+// mesma posição mede só o cache. Por isso os benchmarks das regras fazem cada lance da raiz,
+// medem na posição resultante (ainda sem cache) e desfazem; o custo do próprio faz/desfaz está
+// em makeUnmake. O caminho com cache tem benchmark próprio (generateLegalCached).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Benchmarks {
+    // Corpus fixo: não mude as posições, senão os resultados antigos deixam de valer
+    static final String[] OPENING = {
+            Fen.START,
+            "r1bqkbnr/pppp1ppp/2n5/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3",
+            "rnbqkb1r/pp2pppp/3p1n2/8/3NP3/8/PPP2PPP/RNBQKB1R w KQkq - 1 5",
+    };
+    static final String[] MIDDLEGAME = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r1b2rk1/2q1bppp/p2p1n2/np2p3/3PP3/5N1P/PPBN1PP1/R1BQR1K1 b - - 0 13",
+    };
+    static final String[] ENDGAME = {
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "8/8/4k3/3p4/3P4/4K3/8/8 w - - 0 1",
+            "6k1/5ppp/8/8/8/8/r4PPP/1R4K1 w - - 0 1",
+    };
+
+    private static final int SEARCH_DEPTH = 4;
+    private static final long NO_TIME_LIMIT = 3_600_000; // A busca para pela profundidade
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String corpus;
+
+    private Position[] positions;
+    private int[][] rootMoves;           // Lances legais de cada posição do corpus
+    private List<List<List<Move>>> childMoves; // Move da interface de cada lance legal após cada lance da raiz
+    private final MoveList list = new MoveList();
+    private final MoveList root = new MoveList();
+    private ChessAI ai;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] fens = switch (corpus) {
+            case "opening" -> OPENING;
+            case "middlegame" -> MIDDLEGAME;
+            case "endgame" -> ENDGAME;
+            default -> throw new IllegalArgumentException("Corpus desconhecido: " + corpus);
+        };
+        positions = new Position[fens.length];
+        rootMoves = new int[fens.length][];
+        childMoves = new ArrayList<>(fens.length);
+        for (int i = 0; i < fens.length; i++) {
+            Position pos = Fen.parse(fens[i]);
+            positions[i] = pos;
+            int n = pos.generateLegal(list);
+            rootMoves[i] = new int[n];
+            List<List<Move>> children = new ArrayList<>(n);
+            for (int j = 0; j < n; j++) {
+                rootMoves[i][j] = list.get(j);
+                Position child = pos.copy();
+                child.makeMove(list.get(j));
+                children.add(child.legalMoves());
+            }
+            childMoves.add(children);
+        }
+        ai = new ChessAI(new TranspositionTable(1));
+        ai.setThreads(1); // Só a thread medida busca: nada de auxiliares fora da contagem
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ai.shutdown();
+    }
+
+    // Posição nova a cada chamada: gera de fato
+    @Benchmark
+    public void generateLegal(Blackhole bh) {
+        for (int i = 0; i < positions.length; i++) {
+            Position pos = positions[i];
+            for (int move : rootMoves[i]) {
+                pos.makeMove(move);
+                bh.consume(pos.generateLegal(list));
+                pos.unmakeMove();
+            }
+        }
+    }
+
+    // Mesma posição a cada chamada: depois da primeira, só a cópia da lista guardada
+    @Benchmark
+    public void generateLegalCached(Blackhole bh) {
+        for (Position pos : positions) bh.consume(pos.generateLegal(list));
+    }
+
+    @Benchmark
+    public void legalMovesFrom(Blackhole bh) {
+        for (int i = 0; i < positions.length; i++) {
+            Position pos = positions[i];
+            for (int move : rootMoves[i]) {
+                pos.makeMove(move);
+                for (int r = 0; r < 8; r++)
+                    for (int c = 0; c < 8; c++) {
+                        Piece p = pos.pieceAt(r, c);
+                        if (p != null && p.color == pos.getTurn()) bh.consume(pos.legalMovesFrom(r, c));
+                    }
+                pos.unmakeMove();
+            }
+        }
+    }
+
+    // Sem cache em Position: mede direto nas posições do corpus
+    @Benchmark
+    public void isSquareAttacked(Blackhole bh) {
+        for (Position pos : positions) {
+            int them = pos.getTurn().opposite().ordinal();
+            long occ = pos.occupancy();
+            for (int sq = 0; sq < 64; sq++) bh.consume(pos.isAttacked(sq, them, occ));
+        }
+    }
+
+    @Benchmark
+    public void wouldLeaveKingInCheck(Blackhole bh) {
+        for (int i = 0; i < positions.length; i++) {
+            Position pos = positions[i];
+            for (int j = 0; j < rootMoves[i].length; j++) {
+                pos.makeMove(rootMoves[i][j]);
+                for (Move m : childMoves.get(i).get(j)) bh.consume(pos.wouldLeaveKingInCheck(m));
+                pos.unmakeMove();
+            }
+        }
+    }
+
+    @Benchmark
+    public void isCheckmate(Blackhole bh) {
+        for (int i = 0; i < positions.length; i++) {
+            Position pos = positions[i];
+            for (int move : rootMoves[i]) {
+                pos.makeMove(move);
+                bh.consume(pos.isCheckmate());
+                pos.unmakeMove();
+            }
+        }
+    }
+
+    // Só o faz/desfaz: a base a descontar dos benchmarks acima
+    @Benchmark
+    public void makeUnmake(Blackhole bh) {
+        for (int i = 0; i < positions.length; i++) {
+            Position pos = positions[i];
+            for (int move : rootMoves[i]) {
+                pos.makeMove(move);
+                pos.unmakeMove();
+            }
+            bh.consume(pos.key());
+        }
+    }
+
+    // Busca de profundidade fixa; cada operação começa com a tabela de transposição vazia
+    @Benchmark
+    public void searchDepth4(Blackhole bh) {
+        for (Position pos : positions) {
+            ai.getTranspositionTable().clear();
+            bh.consume(ai.search(pos, NO_TIME_LIMIT, SEARCH_DEPTH, root));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package xadrez;
+
+// Mede como a busca escala com o número de threads (Lazy SMP).
+// Uso: gradle :bench:smp [-Psmp="ms-por-posição máximo-de-threads"]
+// Para cada número de threads (1, 2, 4, ... até o máximo) busca as mesmas posições pelo mesmo
+// tempo e mostra nós por segundo, profundidade média e o ganho em relação a uma thread.
+public class SmpBenchmark {
+    // Posições de teste, como sequências de lances a partir da posição inicial
+    private static final String[][] OPENINGS = {
+            {},
+            {"e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6"},
+            {"d2d4", "d7d5", "c2c4", "e7e6", "b1c3", "g8f6", "c1g5", "f8e7"},
+            {"e2e4", "c7c5", "g1f3", "d7d6", "d2d4", "c5d4", "f3d4", "g8f6", "b1c3", "a7a6"},
+    };
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+
+        ChessAI ai = new ChessAI(new TranspositionTable(64));
+        MoveList root = new MoveList();
+        double baseNps = 0;
+        ai.search(play(OPENINGS[1]), millis, ChessAI.MAX_PLY, root); // Aquece o JIT antes de medir
+        System.out.printf("%8s %12s %10s %8s%n", "threads", "nps", "depth", "ganho");
+        for (int threads = 1; threads <= maxThreads;
+             threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+            ai.setThreads(threads);
+            long nodes = 0, time = 0, depthSum = 0;
+            for (String[] line : OPENINGS) {
+                ai.getTranspositionTable().clear();
+                ai.search(play(line), millis, ChessAI.MAX_PLY, root);
+                SearchInfo info = ai.getLastSearchInfo();
+                nodes += info.nodes;
+                time += info.timeMillis;
+                depthSum += info.depth;
+            }
+            double nps = nodes * 1000.0 / Math.max(1, time);
+            if (threads == 1) baseNps = nps;
+            System.out.printf("%8d %12.0f %10.1f %7.2fx%n", threads, nps,
+                    (double) depthSum / OPENINGS.length, nps / baseNps);
+        }
+        ai.shutdown();
+    }
+
+    // Joga a sequência de lances (notação de coordenadas) a partir da posição inicial
+    private static Position play(String[] line) {
+        Position pos = Position.initial();
+        MoveList list = new MoveList();
+        for (String text : line) {
+            pos.generateLegal(list);
+            int found = Moves.NONE;
+            for (int i = 0; i < list.size(); i++)
+                if (Moves.toString(list.get(i)).equals(text)) found = list.get(i);
+            if (found == Moves.NONE) throw new IllegalArgumentException("Lance ilegal: " + text);
+            pos.makeMove(found);
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,145 @@
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Análise em lote: lê um arquivo de FENs (uma por linha) e escreve, para cada uma, o melhor
+// lance e a pontuação, com profundidade ou número de nós fixos.
+//
+// As posições são lidas aos poucos e analisadas num ForkJoinPool; cada thread do pool tem sua
+// própria ChessAI (tabela de transposição, históricos), que segue de uma posição para a outra.
+// A saída sai na ordem da entrada: uma janela limitada de análises em andamento, e a leitura
+// só avança quando a mais antiga termina e é escrita. Assim a memória não depende do tamanho do
+// arquivo e uma posição lenta só segura a leitura, não as outras threads. (Um parallel stream
+// sobre Files.lines() com forEachOrdered guardaria os resultados prontos sem limite.)
+//
+// Saída em CSV: fen,bestmove,score,depth,nodes,ms — score como no UCI ("cp 35", "mate 3"), do
+// ponto de vista de quem joga; linhas com FEN inválida saem com "erro" e a mensagem.
+//
+// Uso: java Analysis [opções]   (ou java Main analyze [opções])
+//   --in arquivo     FENs, uma por linha; linhas vazias e com # são ignoradas (padrão: entrada padrão)
+//   --out arquivo    resultados (padrão: saída padrão)
+//   --depth N        profundidade de cada busca (padrão 8)
+//   --nodes N        para também ao passar de N nós
+//   --threads N      threads do pool, cada uma com sua IA (padrão: núcleos)
+//   --hash MB        tabela de transposição de cada IA (padrão 16)
+//   --window N       análises em andamento ao mesmo tempo (padrão: 4 por thread)
+public final class Analysis {
+    static final int DEFAULT_DEPTH = 8;
+    static final String HEADER = "fen,bestmove,score,depth,nodes,ms";
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<ChessAI> engines;   // Uma IA por thread do pool
+    private final int depth;
+    private final long nodes;
+    private final int window;
+    private long analyzed, totalNodes;
+
+    Analysis(int threads, int hashMb, int depth, long nodes, int window) {
+        pool = new ForkJoinPool(threads);
+        engines = ThreadLocal.withInitial(() -> new ChessAI(new TranspositionTable(hashMb)));
+        this.depth = depth;
+        this.nodes = nodes;
+        this.window = window;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors(), hashMb = ChessAI.DEFAULT_HASH_MB;
+        int depth = DEFAULT_DEPTH, window = -1;
+        long nodes = Long.MAX_VALUE;
+        String inFile = null, outFile = null;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) throw new IllegalArgumentException("Falta o valor de " + args[i]);
+            switch (args[i]) {
+                case "--in": inFile = value; break;
+                case "--out": outFile = value; break;
+                case "--depth": depth = Integer.parseInt(value); break;
+                case "--nodes": nodes = Long.parseLong(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--hash": hashMb = Integer.parseInt(value); break;
+                case "--window": window = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+            i++;
+        }
+        threads = Math.max(1, threads);
+        Analysis analysis = new Analysis(threads, Math.max(1, hashMb), Math.max(1, Math.min(ChessAI.MAX_PLY, depth)),
+                nodes, window > 0 ? window : 4 * threads);
+        BufferedReader in = new BufferedReader(inFile != null
+                ? Files.newBufferedReader(Paths.get(inFile), StandardCharsets.UTF_8)
+                : new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        PrintStream out = outFile != null
+                ? new PrintStream(new FileOutputStream(outFile), false, StandardCharsets.UTF_8)
+                : new PrintStream(System.out, false, StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        try (in; out) {
+            analysis.run(in, out);
+        } finally {
+            analysis.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d posições em %.1f s (%.1f posições/s, %d nós/s)%n", analysis.analyzed, seconds,
+                analysis.analyzed / seconds, (long) (analysis.totalNodes / seconds));
+    }
+
+    // Lê até o fim da entrada, escrevendo cada resultado assim que ele e os anteriores estão prontos
+    void run(BufferedReader in, PrintStream out) throws IOException, InterruptedException {
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>(window);
+        out.println(HEADER);
+        for (String line; (line = in.readLine()) != null; ) {
+            String fen = line.trim();
+            if (fen.isEmpty() || fen.startsWith("#")) continue;
+            if (pending.size() == window) write(pending.poll(), out); // Janela cheia: espera a mais antiga
+            pending.add(pool.submit(() -> analyze(fen)));
+        }
+        while (!pending.isEmpty()) write(pending.poll(), out);
+        out.flush();
+    }
+
+    private void write(Future<String> result, PrintStream out) throws InterruptedException {
+        try {
+            out.println(result.get());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha na análise", e.getCause());
+        }
+        analyzed++;
+    }
+
+    // Numa thread do pool
+    private String analyze(String fen) {
+        Position pos;
+        try {
+            pos = Fen.parse(fen);
+        } catch (IllegalArgumentException e) {
+            return fen + ",erro," + e.getMessage().replace(',', ';') + ",,,";
+        }
+        ChessAI ai = engines.get();
+        MoveList root = new MoveList();
+        long start = System.nanoTime();
+        int best = ai.search(pos, ChessAI.INFINITE, depth, nodes, root);
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        // Sem SearchInfo: sem lances, ou lance forçado devolvido sem busca
+        SearchInfo info = ai.getLastSearchInfo();
+        String score = info != null ? Uci.score(info.score)
+                : best == Moves.NONE ? pos.status().toString() : "";
+        long searched = info != null ? info.nodes : 0;
+        synchronized (this) {
+            totalNodes += searched;
+        }
+        return fen + "," + Moves.toString(best) + "," + score + "," + (info != null ? info.depth : 0)
+                + "," + searched + "," + millis;
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,186 @@
+// Tabelas de ataque pré-calculadas para bitboards (um long = 64 casas).
+// Casas numeradas de a1 = 0 até h8 = 63; a linha 0 do tabuleiro da tela é a oitava fileira.
+final class Bitboards {
+    private Bitboards() {}
+
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = FILE_A << 7;
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_2 = RANK_1 << 8;
+    static final long RANK_7 = RANK_1 << 48;
+    static final long RANK_8 = RANK_1 << 56;
+
+    // Ataques fixos de cavalo, rei e peão ([cor][casa])
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Casas estritamente entre duas casas alinhadas, e a linha inteira que passa por elas
+    static final long[][] BETWEEN = new long[64][64];
+    static final long[][] LINE = new long[64][64];
+
+    // Magic bitboards das peças deslizantes
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE = new long[102400];
+    private static final long[] BISHOP_TABLE = new long[5248];
+
+    private static final int[][] ROOK_DIRS = {{1,0},{-1,0},{0,1},{0,-1}};
+    private static final int[][] BISHOP_DIRS = {{1,1},{1,-1},{-1,1},{-1,-1}};
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            int rank = sq >>> 3, file = sq & 7;
+            for (int[] j : new int[][]{{-2,-1},{-2,1},{-1,-2},{-1,2},{1,-2},{1,2},{2,-1},{2,1}})
+                KNIGHT_ATTACKS[sq] |= bitIfValid(rank + j[0], file + j[1]);
+            for (int dr = -1; dr <= 1; dr++)
+                for (int df = -1; df <= 1; df++)
+                    if (dr != 0 || df != 0) KING_ATTACKS[sq] |= bitIfValid(rank + dr, file + df);
+            PAWN_ATTACKS[0][sq] = bitIfValid(rank + 1, file - 1) | bitIfValid(rank + 1, file + 1);
+            PAWN_ATTACKS[1][sq] = bitIfValid(rank - 1, file - 1) | bitIfValid(rank - 1, file + 1);
+        }
+        // Semente fixa: as mesmas magics são encontradas em toda execução
+        long[] seed = {0x2545F4914F6CDD1DL};
+        initMagics(ROOK_DIRS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, ROOK_TABLE, seed);
+        initMagics(BISHOP_DIRS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, BISHOP_TABLE, seed);
+
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) continue;
+                long ab = bit(a) | bit(b);
+                if ((rookAttacks(a, 0L) & bit(b)) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, ab) & rookAttacks(b, ab);
+                    LINE[a][b] = (rookAttacks(a, 0L) & rookAttacks(b, 0L)) | ab;
+                } else if ((bishopAttacks(a, 0L) & bit(b)) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, ab) & bishopAttacks(b, ab);
+                    LINE[a][b] = (bishopAttacks(a, 0L) & bishopAttacks(b, 0L)) | ab;
+                }
+            }
+        }
+    }
+
+    static long bit(int sq) {
+        return 1L << sq;
+    }
+
+    // Conversão entre (linha, coluna) da tela e índice da casa
+    static int square(int r, int c) {
+        return (7 - r) * 8 + c;
+    }
+
+    static int row(int sq) {
+        return 7 - (sq >>> 3);
+    }
+
+    static int col(int sq) {
+        return sq & 7;
+    }
+
+    static long rookAttacks(int sq, long occ) {
+        return ROOK_TABLE[ROOK_OFFSETS[sq]
+                + (int) (((occ & ROOK_MASKS[sq]) * ROOK_MAGICS[sq]) >>> ROOK_SHIFTS[sq])];
+    }
+
+    static long bishopAttacks(int sq, long occ) {
+        return BISHOP_TABLE[BISHOP_OFFSETS[sq]
+                + (int) (((occ & BISHOP_MASKS[sq]) * BISHOP_MAGICS[sq]) >>> BISHOP_SHIFTS[sq])];
+    }
+
+    static long queenAttacks(int sq, long occ) {
+        return rookAttacks(sq, occ) | bishopAttacks(sq, occ);
+    }
+
+    private static long bitIfValid(int rank, int file) {
+        return (rank >= 0 && rank < 8 && file >= 0 && file < 8) ? 1L << (rank * 8 + file) : 0L;
+    }
+
+    // Ataques calculados raio a raio; usados só para montar as tabelas
+    private static long slowAttacks(int sq, long occ, int[][] dirs) {
+        long attacks = 0L;
+        for (int[] d : dirs) {
+            int rank = (sq >>> 3) + d[0], file = (sq & 7) + d[1];
+            while (rank >= 0 && rank < 8 && file >= 0 && file < 8) {
+                long b = 1L << (rank * 8 + file);
+                attacks |= b;
+                if ((occ & b) != 0) break;
+                rank += d[0]; file += d[1];
+            }
+        }
+        return attacks;
+    }
+
+    // Casas cuja ocupação influencia os ataques (sem as bordas do raio)
+    private static long relevantMask(int sq, int[][] dirs) {
+        long mask = 0L;
+        for (int[] d : dirs) {
+            int rank = (sq >>> 3) + d[0], file = (sq & 7) + d[1];
+            while (rank + d[0] >= 0 && rank + d[0] < 8 && file + d[1] >= 0 && file + d[1] < 8) {
+                mask |= 1L << (rank * 8 + file);
+                rank += d[0]; file += d[1];
+            }
+        }
+        return mask;
+    }
+
+    // Procura, casa a casa, um número mágico sem colisões destrutivas
+    private static void initMagics(int[][] dirs, long[] masks, long[] magics, int[] shifts,
+                                   int[] offsets, long[] table, long[] seed) {
+        long[] occupancies = new long[4096];
+        long[] reference = new long[4096];
+        int[] epoch = new int[4096];
+        int attempt = 0, offset = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = relevantMask(sq, dirs);
+            int bits = Long.bitCount(mask);
+            int size = 1 << bits;
+            masks[sq] = mask;
+            shifts[sq] = 64 - bits;
+            offsets[sq] = offset;
+
+            // Enumera todos os subconjuntos da máscara (Carry-Rippler)
+            long subset = 0L;
+            for (int i = 0; i < size; i++) {
+                occupancies[i] = subset;
+                reference[i] = slowAttacks(sq, subset, dirs);
+                subset = (subset - mask) & mask;
+            }
+
+            while (true) {
+                long magic = nextRandom(seed) & nextRandom(seed) & nextRandom(seed);
+                if (Long.bitCount((mask * magic) >>> 56) < 6) continue;
+                attempt++;
+                boolean ok = true;
+                for (int i = 0; i < size && ok; i++) {
+                    int idx = (int) ((occupancies[i] * magic) >>> shifts[sq]);
+                    if (epoch[idx] != attempt) {
+                        epoch[idx] = attempt;
+                        table[offset + idx] = reference[i];
+                    } else if (table[offset + idx] != reference[i]) {
+                        ok = false;
+                    }
+                }
+                if (ok) {
+                    magics[sq] = magic;
+                    break;
+                }
+            }
+            offset += size;
+        }
+    }
+
+    // Gerador xorshift64* simples para a busca das magics
+    private static long nextRandom(long[] seed) {
+        long x = seed[0];
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        seed[0] = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+}
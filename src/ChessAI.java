@@ -1,26 +1,493 @@
-import java.util.List;  // Para usar listas genéricas (List)
-import java.util.ArrayList;  // Implementação concreta de listas (ArrayList)
-import java.util.Random; // Para gerar números aleatórios (IA, movimentos aleatórios)
-import java.awt.Point; // Representa coordenadas (x, y) no tabuleiro
+import java.util.ArrayList;                  // Lista de threads auxiliares
+import java.util.List;                       // Interface de listas genéricas
+import java.util.concurrent.ExecutorService; // Pool de threads reaproveitado entre lances
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;          // Para avisar quem quiser acompanhar a busca
+import java.util.function.ToLongFunction;
 
+// IA do jogo: negamax com poda alfa-beta, aprofundamento iterativo e busca de quiescência.
+// Busca o mais fundo possível dentro do tempo dado e devolve o melhor lance encontrado até então.
+// Com mais de uma thread usa Lazy SMP: as auxiliares buscam a mesma posição em paralelo e
+// compartilham só a tabela de transposição; a thread principal decide o lance.
+// A instância deve ser reaproveitada entre lances (o pool de threads e a tabela ficam vivos).
 public class ChessAI {
-    private final Random random = new Random();
-
-    // Retorna um movimento aleatório válido para aiColor usando o BoardPanel para gerar jogadas
-    public Move getBestMove(Piece[][] board, PieceColor aiColor, BoardPanel panel) {
-        List<Move> moves = new ArrayList<>();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = board[r][c];
-                if (p != null && p.color == aiColor) {
-                    List<Point> legal = panel.computeLegalMoves(r, c);
-                    for (Point mv : legal) {
-                        moves.add(new Move(r, c, mv.x, mv.y));
+    static final int INFINITY = 32000;
+    static final int MATE = 30000;          // Mate em N plies vale MATE - N
+    static final int MAX_PLY = 128;
+    public static final long DEFAULT_THINK_MILLIS = 1500;
+    public static final long INFINITE = Long.MAX_VALUE; // Sem prazo: só para com stop() ou ponderHit()
+    static final int DEFAULT_HASH_MB = 16;
+    static final int EVAL_CACHE_SIZE = 1 << 16; // Entradas por thread (512 KB)
+
+    private final TranspositionTable tt;
+    private final MoveList rootMoves = new MoveList();
+    private final Searcher main = new Searcher();
+    private final List<Searcher> helpers = new ArrayList<>();
+    private ExecutorService pool;
+    private Consumer<SearchInfo> infoListener = info -> {};
+    private volatile SearchInfo lastInfo;
+    private volatile OpeningBook book; // Consultado antes de cada busca (null = sem livro)
+    private volatile Tablebase tablebase; // Resultado exato dos finais com poucas peças (null = sem)
+    private volatile Nnue network;        // Avaliação pela rede em vez da clássica (null = clássica)
+    private volatile Metrics metrics = Metrics.NONE; // Recebe os contadores ao fim de cada busca
+
+    // Controle compartilhado pelas threads da busca em andamento
+    private volatile boolean stop;
+    private volatile long deadline;
+    private volatile long nodeLimit = Long.MAX_VALUE; // Soma dos nós de todas as threads
+    private long startTime;
+    private int maxDepth;
+
+    // Prazo de uma busca sem limite (pondering) que pode ser definido com ela já rodando
+    private final Object timeLock = new Object();
+    private boolean infinite;          // Busca atual ainda sem prazo
+    private long ponderHitMillis = -1; // ponderHit() que chegou antes de a busca começar
+
+    public ChessAI() {
+        this(new TranspositionTable(DEFAULT_HASH_MB));
+    }
+
+    // Permite que várias instâncias compartilhem a mesma tabela de transposição
+    ChessAI(TranspositionTable tt) {
+        this.tt = tt;
+    }
+
+    TranspositionTable getTranspositionTable() {
+        return tt;
+    }
+
+    // Número total de threads de busca (1 = só a thread que chama getBestMove)
+    public synchronized void setThreads(int threads) {
+        threads = Math.max(1, threads);
+        if (threads == getThreads()) return;
+        shutdown();
+        for (int i = 1; i < threads; i++) helpers.add(new Searcher());
+        if (!helpers.isEmpty()) {
+            pool = Executors.newFixedThreadPool(helpers.size(), r -> {
+                Thread t = new Thread(r, "ChessAI-helper");
+                t.setDaemon(true); // Não impede a aplicação de fechar
+                return t;
+            });
+        }
+    }
+
+    public synchronized int getThreads() {
+        return helpers.size() + 1;
+    }
+
+    // Libera as threads auxiliares; a instância continua usável com uma thread
+    public synchronized void shutdown() {
+        if (pool != null) pool.shutdownNow();
+        pool = null;
+        helpers.clear();
+    }
+
+    // Livro de aberturas: enquanto a posição estiver nele, o lance sai do livro, sem busca
+    void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    OpeningBook getOpeningBook() {
+        return book;
+    }
+
+    // Tabelas de finais: com poucas peças o lance sai delas, e a busca as consulta nas folhas
+    void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    // Rede de avaliação (NNUE); null volta à avaliação clássica
+    void setNetwork(Nnue network) {
+        this.network = network;
+    }
+
+    // Contadores acumulados entre buscas (nós, acertos na tabela, cortes...), informados ao
+    // fim de cada busca; várias IAs podem dividir o mesmo destino
+    void setMetrics(Metrics metrics) {
+        this.metrics = metrics != null ? metrics : Metrics.NONE;
+    }
+
+    // Recebe um SearchInfo ao fim de cada iteração (profundidade, nós, nós/s)
+    public void setInfoListener(Consumer<SearchInfo> listener) {
+        this.infoListener = listener != null ? listener : info -> {};
+    }
+
+    // Relatório da última iteração concluída
+    public SearchInfo getLastSearchInfo() {
+        return lastInfo;
+    }
+
+    // Melhor lance para o jogador da vez, pensando pelo tempo padrão
+    public Move getBestMove(Position position) {
+        return getBestMove(position, DEFAULT_THINK_MILLIS);
+    }
+
+    public Move getBestMove(Position position, long thinkMillis) {
+        int best = search(position, thinkMillis, MAX_PLY, rootMoves);
+        return best == Moves.NONE ? null : Moves.toMove(best);
+    }
+
+    // Mesma busca, usando o buffer do chamador para os lances da raiz; devolve o lance codificado
+    int getBestMove(Position position, MoveList buffer) {
+        return search(position, DEFAULT_THINK_MILLIS, MAX_PLY, buffer);
+    }
+
+    // Interrompe a busca em andamento, que devolve o melhor lance encontrado até então
+    public void stop() {
+        stop = true;
+    }
+
+    // O adversário jogou o lance em que a IA estava pensando: a busca sem prazo em andamento
+    // (ou a próxima, se ainda não começou) passa a ter thinkMillis a partir de agora
+    public void ponderHit(long thinkMillis) {
+        synchronized (timeLock) {
+            if (infinite) {
+                deadline = System.nanoTime() + thinkMillis * 1_000_000L;
+                infinite = false;
+            } else {
+                ponderHitMillis = thinkMillis;
+            }
+        }
+    }
+
+    // Busca com tempo (ou INFINITE) e profundidade máximos; a posição do chamador não é alterada
+    int search(Position position, long thinkMillis, int depthLimit, MoveList root) {
+        return search(position, thinkMillis, depthLimit, Long.MAX_VALUE, root);
+    }
+
+    // Idem, parando também ao passar de "maxNodes" nós (ex.: "go nodes" do UCI)
+    synchronized int search(Position position, long thinkMillis, int depthLimit, long maxNodes, MoveList root) {
+        lastInfo = null;
+        if (position.generateLegal(root) == 0) return Moves.NONE;
+        if (root.size() == 1) return root.get(0); // Lance forçado: não gasta tempo
+        OpeningBook book = this.book;
+        if (book != null) {
+            int move = book.probe(position, root);
+            if (move != Moves.NONE) {
+                metrics.add("book.hits", 1);
+                return move;
+            }
+        }
+        Tablebase tablebase = this.tablebase;
+        if (tablebase != null && Long.bitCount(position.occupancy()) <= Tablebase.MAX_PIECES) {
+            int move = tablebase.bestMove(position, root);
+            if (move != Moves.NONE) {
+                metrics.add("tablebase.hits", 1);
+                return move;
+            }
+        }
+
+        stop = false;
+        synchronized (timeLock) {
+            startTime = System.nanoTime();
+            long budget = thinkMillis == INFINITE ? ponderHitMillis : thinkMillis;
+            infinite = budget < 0;
+            deadline = infinite ? Long.MAX_VALUE : startTime + budget * 1_000_000L;
+            ponderHitMillis = -1;
+        }
+        maxDepth = Math.min(depthLimit, MAX_PLY);
+        nodeLimit = Math.max(1, maxNodes);
+        tt.newSearch();
+
+        // Auxiliares: cada uma com sua cópia da posição; as ímpares começam um ply mais fundo
+        List<Future<?>> running = new ArrayList<>(helpers.size());
+        for (int i = 0; i < helpers.size(); i++) {
+            Searcher helper = helpers.get(i);
+            helper.prepare(position.copy(), root);
+            int firstDepth = 1 + (i & 1);
+            running.add(pool.submit(() -> helper.iterate(firstDepth, false)));
+        }
+        main.prepare(position.copy(), root);
+        int best = main.iterate(1, true);
+
+        // A principal terminou: avisa as auxiliares e espera todas pararem
+        stop = true;
+        for (Future<?> f : running) {
+            try {
+                f.get();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        synchronized (timeLock) {
+            infinite = false;
+        }
+        report();
+        return best;
+    }
+
+    // Passa os contadores da busca que terminou para o destino das métricas
+    private void report() {
+        Metrics m = metrics;
+        if (m == Metrics.NONE) return;
+        m.add("search.count", 1);
+        m.add("search.nodes", total(s -> s.nodes));
+        m.add("search.qnodes", total(s -> s.qnodes));
+        m.add("search.tt.probes", total(s -> s.ttProbes));
+        m.add("search.tt.hits", total(s -> s.ttHits));
+        m.add("search.cutoffs", total(s -> s.cutoffs));
+        m.add("search.cutoffs.first", total(s -> s.firstMoveCutoffs));
+        m.add("search.moves.generated", total(s -> s.generated));
+        m.add("search.time.ms", elapsedMillis());
+        SearchInfo info = lastInfo;
+        if (info != null) m.set("search.depth.last", info.depth);
+    }
+
+    // Variação principal a partir do melhor lance, seguindo a tabela de transposição enquanto os
+    // lances guardados forem legais; para antes de repetir posição. "out" recebe os lances
+    void principalVariation(Position position, int best, int maxLength, MoveList out) {
+        out.clear();
+        Position pos = position.copy();
+        for (int move = best; move != Moves.NONE && out.size() < maxLength && pos.isLegalMove(move); ) {
+            out.add(move);
+            pos.makeMove(move);
+            if (pos.repetitions() > 0) break;
+            long entry = tt.probe(pos.key());
+            move = entry != 0 ? TranspositionTable.move(entry) : Moves.NONE;
+        }
+    }
+
+    // Nós visitados por todas as threads na busca atual
+    private long totalNodes() {
+        return total(s -> s.nodes);
+    }
+
+    // Soma de um contador da busca atual sobre todas as threads
+    private long total(ToLongFunction<Searcher> counter) {
+        long n = counter.applyAsLong(main);
+        for (Searcher s : helpers) n += counter.applyAsLong(s);
+        return n;
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole == 0 ? 0 : (double) part / whole;
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - startTime) / 1_000_000L;
+    }
+
+    // Estado de busca de uma thread: posição própria, buffers por ply e contadores
+    private final class Searcher {
+        private final MoveList[] lists = new MoveList[MAX_PLY + 1]; // Lances quietos já tentados
+        private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+        private final MoveHistory moveHistory = new MoveHistory(MAX_PLY);
+        private final MoveList root = new MoveList();
+        private Position pos;
+        private Tablebase tablebase;
+        private final EvalCache evalCache = new EvalCache(EVAL_CACHE_SIZE);
+        private Nnue cachedNetwork; // Rede com que o cache foi preenchido
+        private boolean stopped;
+        // Contadores da busca atual: lidos pela thread principal sem sincronização, então um
+        // valor de uma auxiliar pode vir um pouco atrasado — serve para estatística
+        private long nodes;
+        private long qnodes;           // Nós de quiescência (também contados em nodes)
+        private long ttProbes, ttHits;
+        private long cutoffs;          // Cortes beta...
+        private long firstMoveCutoffs; // ...dos quais pelo primeiro lance: mede a ordenação
+        private long generated;        // Lances gerados
+
+        Searcher() {
+            for (int i = 0; i < lists.length; i++) lists[i] = new MoveList();
+            for (int i = 0; i < pickers.length; i++) pickers[i] = new MovePicker(moveHistory);
+            moveHistory.clear();
+        }
+
+        void prepare(Position position, MoveList rootMoves) {
+            pos = position;
+            tablebase = ChessAI.this.tablebase;
+            Nnue net = network;
+            if (net != cachedNetwork) evalCache.clear(); // Outra avaliação: o cache não vale mais
+            cachedNetwork = net;
+            if (net != null) pos.setNetwork(net);
+            moveHistory.age();
+            nodes = qnodes = ttProbes = ttHits = cutoffs = firstMoveCutoffs = generated = 0;
+            stopped = false;
+            System.arraycopy(rootMoves.moves, 0, root.moves, 0, rootMoves.size());
+            root.size = rootMoves.size();
+        }
+
+        // Aprofundamento iterativo: profundidade 1, 2, 3... até o tempo acabar.
+        // Só a thread principal publica SearchInfo.
+        int iterate(int firstDepth, boolean isMain) {
+            int best = root.get(0);
+            long previousNodes = 0, lastIterationNodes = 0;
+            for (int depth = firstDepth; depth <= maxDepth; depth++) {
+                SearchIterationEvent event = isMain ? new SearchIterationEvent() : null;
+                long iterationStart = System.nanoTime();
+                if (event != null) event.begin();
+                int score = searchRoot(depth);
+                best = root.get(0); // searchRoot deixa o melhor lance na frente
+                if (stopped) break;
+                if (isMain) {
+                    long nodes = totalNodes();
+                    long iterationNodes = nodes - previousNodes;
+                    double branching = lastIterationNodes == 0 ? 0 : (double) iterationNodes / lastIterationNodes;
+                    previousNodes = nodes;
+                    lastIterationNodes = iterationNodes;
+                    lastInfo = new SearchInfo(depth, score, nodes, total(s -> s.qnodes), elapsedMillis(),
+                            (System.nanoTime() - iterationStart) / 1_000_000L,
+                            ratio(total(s -> s.ttHits), total(s -> s.ttProbes)),
+                            ratio(total(s -> s.firstMoveCutoffs), total(s -> s.cutoffs)), branching, best);
+                    event.commit(lastInfo);
+                    infoListener.accept(lastInfo);
+                }
+                if (score >= MATE - depth) break; // Mate encontrado: não há o que melhorar
+            }
+            return best;
+        }
+
+        private int searchRoot(int depth) {
+            int alpha = -INFINITY;
+            int bestIndex = 0;
+            for (int i = 0; i < root.size(); i++) {
+                int move = root.get(i);
+                pos.makeMove(move);
+                int score = -alphaBeta(depth - 1, -INFINITY, -alpha, 1);
+                pos.unmakeMove();
+                if (stopped) break;
+                // Só lances pesquisados até o fim podem virar o melhor
+                if (score > alpha) {
+                    alpha = score;
+                    bestIndex = i;
+                }
+            }
+            // Melhor lance vai para a frente: é o primeiro da próxima iteração
+            int best = root.moves[bestIndex];
+            System.arraycopy(root.moves, 0, root.moves, 1, bestIndex);
+            root.moves[0] = best;
+            if (!stopped) tt.store(pos.key(), best, alpha, depth, TranspositionTable.BOUND_EXACT);
+            return alpha;
+        }
+
+        private int alphaBeta(int depth, int alpha, int beta, int ply) {
+            if (checkTime()) return 0;
+            // Empates por regra: uma única repetição já basta dentro da busca
+            if (pos.halfmoveClock() >= 100 || pos.repetitions() > 0 || pos.isInsufficientMaterial())
+                return 0;
+            // Poucas peças: a tabela de finais dá o resultado exato
+            if (tablebase != null && Long.bitCount(pos.occupancy()) <= Tablebase.MAX_PIECES) {
+                int score = tablebase.score(pos, ply);
+                if (score != Tablebase.NOT_FOUND) return score;
+            }
+
+            boolean inCheck = pos.inCheck();
+            if (inCheck) depth++; // Extensão de xeque
+            if (depth <= 0) return quiesce(alpha, beta, ply);
+            if (ply >= MAX_PLY) return evaluate();
+
+            // Consulta a tabela de transposição: pode dar o resultado pronto ou o melhor lance
+            long key = pos.key();
+            long entry = tt.probe(key);
+            int ttMove = Moves.NONE;
+            ttProbes++;
+            if (entry != 0) {
+                ttHits++;
+                ttMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int ttScore = scoreFromTT(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || (bound == TranspositionTable.BOUND_LOWER && ttScore >= beta)
+                            || (bound == TranspositionTable.BOUND_UPPER && ttScore <= alpha))
+                        return ttScore;
+                }
+            }
+
+            // Lances gerados aos poucos, na ordem do MovePicker
+            MovePicker picker = pickers[ply];
+            picker.init(pos, ttMove, ply);
+            MoveList quietsTried = lists[ply];
+            quietsTried.clear();
+            int originalAlpha = alpha;
+            int bestScore = -INFINITY;
+            int bestMove = Moves.NONE;
+            int count = 0;
+            for (int move; (move = picker.next()) != Moves.NONE; ) {
+                count++;
+                pos.makeMove(move);
+                int score = -alphaBeta(depth - 1, -beta, -alpha, ply + 1);
+                pos.unmakeMove();
+                if (stopped) return 0;
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = move;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) { // Corte beta
+                            cutoffs++;
+                            if (count == 1) firstMoveCutoffs++;
+                            moveHistory.cutoff(pos, move, depth, ply, quietsTried);
+                            break;
+                        }
                     }
                 }
+                if (MoveHistory.isQuiet(move)) quietsTried.add(move);
+            }
+            generated += picker.generated;
+            if (count == 0) return inCheck ? -MATE + ply : 0; // Xeque-mate ou afogamento
+            int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                    : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT
+                    : TranspositionTable.BOUND_UPPER;
+            tt.store(key, bestMove, scoreToTT(bestScore, ply), depth, bound);
+            return bestScore;
+        }
+
+        // Só capturas e promoções, até a posição ficar "quieta"
+        private int quiesce(int alpha, int beta, int ply) {
+            if (checkTime()) return 0;
+            qnodes++;
+            int standPat = evaluate();
+            if (standPat >= beta || ply >= MAX_PLY) return standPat;
+            if (standPat > alpha) alpha = standPat;
+
+            MovePicker picker = pickers[ply];
+            picker.initQuiescence(pos);
+            for (int move; (move = picker.next()) != Moves.NONE; ) {
+                pos.makeMove(move);
+                int score = -quiesce(-beta, -alpha, ply + 1);
+                pos.unmakeMove();
+                if (stopped) return 0;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) break;
+                }
             }
+            generated += picker.generated;
+            return alpha;
         }
-        if (moves.isEmpty()) return null;
-        return moves.get(random.nextInt(moves.size()));
+
+        private int evaluate() {
+            long key = pos.key();
+            int score = evalCache.probe(key);
+            if (score == EvalCache.MISS) {
+                score = Evaluation.evaluate(pos);
+                evalCache.store(key, score);
+            }
+            return score;
+        }
+
+        // Conta o nó e, a cada 2048, olha o relógio e o sinal de parada das outras threads
+        private boolean checkTime() {
+            if ((++nodes & 2047) == 0 || nodes >= nodeLimit) {
+                if (System.nanoTime() > deadline || totalNodes() >= nodeLimit) stop = true;
+                stopped = stop;
+            }
+            return stopped;
+        }
+    }
+
+    // Pontuações de mate são guardadas relativas ao nó, não à raiz
+    private static int scoreToTT(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score + ply;
+        if (score <= -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int scoreFromTT(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score - ply;
+        if (score <= -MATE + MAX_PLY) return score + ply;
+        return score;
     }
-}
\ No newline at end of file
+}
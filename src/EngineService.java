@@ -0,0 +1,112 @@
+import java.util.concurrent.CompletableFuture; // Resultado de cada pedido, entregue quando a busca termina
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Serviço assíncrono da IA. Cada pedido busca numa cópia da posição feita na hora do pedido,
+// numa thread própria: quem chama (ex.: a thread do Swing) pode continuar mexendo no seu Position.
+// O pedido em andamento pode ser interrompido (termina com o melhor lance achado até então)
+// ou cancelado. Depois de jogar, o serviço pondera: no tempo do adversário, busca a posição que
+// resulta da resposta esperada; se ela vier, a mesma busca continua, agora com prazo.
+public final class EngineService {
+    private final ChessAI ai;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "EngineService");
+        t.setDaemon(true); // Não impede a aplicação de fechar
+        return t;
+    });
+    private final MoveList rootMoves = new MoveList(); // Usado só pela thread do serviço
+
+    // Pedido atual; no ponder, também a chave da posição esperada
+    private CompletableFuture<Move> current;
+    private Future<?> task;
+    private boolean pondering;
+    private long ponderKey;
+
+    public EngineService(ChessAI ai) {
+        this.ai = ai;
+    }
+
+    // Começa a pensar na posição; o resultado é o melhor lance (null se não houver lance legal)
+    public synchronized CompletableFuture<Move> think(Position position, long thinkMillis) {
+        if (pondering && position.key() == ponderKey && !current.isDone()) {
+            // O adversário jogou o lance esperado: a busca em andamento ganha o prazo normal
+            pondering = false;
+            ai.ponderHit(thinkMillis);
+            return current;
+        }
+        cancel();
+        return submit(position.copy(), thinkMillis);
+    }
+
+    // Pondera na posição (vez do adversário), supondo a resposta guardada na tabela de transposição
+    public synchronized void ponder(Position position) {
+        cancel();
+        long entry = ai.getTranspositionTable().probe(position.key());
+        int expected = entry != 0 ? TranspositionTable.move(entry) : Moves.NONE;
+        MoveList legal = new MoveList();
+        position.generateLegal(legal);
+        if (expected == Moves.NONE || !legal.contains(expected)) return;
+
+        Position snapshot = position.copy();
+        snapshot.makeMove(expected);
+        if (snapshot.status().isOver()) return;
+        submit(snapshot, ChessAI.INFINITE);
+        pondering = true;
+        ponderKey = snapshot.key();
+    }
+
+    // Interrompe a busca em andamento; o pedido dela completa com o melhor lance até então
+    public synchronized void stop() {
+        if (task != null && !task.isDone()) ai.stop();
+    }
+
+    // Descarta o pedido atual (ex.: o jogador abandonou) e espera a busca parar
+    public synchronized void cancel() {
+        if (current != null) current.cancel(false);
+        current = null;
+        pondering = false;
+        Future<?> running = task;
+        task = null;
+        // stop() pode chegar antes de a busca começar (e ser apagado por ela): insiste até ela terminar
+        while (running != null && !running.isDone()) {
+            ai.stop();
+            try {
+                running.get(1, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignored) {
+                // Ainda rodando
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+    }
+
+    // Cancela tudo e libera as threads (do serviço e da IA)
+    public synchronized void shutdown() {
+        cancel();
+        executor.shutdownNow();
+        ai.shutdown();
+    }
+
+    private CompletableFuture<Move> submit(Position snapshot, long thinkMillis) {
+        CompletableFuture<Move> result = new CompletableFuture<>();
+        current = result;
+        task = executor.submit(() -> {
+            if (result.isDone()) return; // Cancelado antes de começar
+            try {
+                int best = ai.search(snapshot, thinkMillis, ChessAI.MAX_PLY, rootMoves);
+                result.complete(best == Moves.NONE ? null : Moves.toMove(best));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+}
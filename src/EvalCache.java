@@ -0,0 +1,33 @@
+// Cache de avaliações, indexado pela chave de Zobrist: a mesma posição aparece muitas vezes
+// numa busca (transposições, quiescência, iterações seguintes) e não precisa ser avaliada de
+// novo. Tamanho fixo; cada entrada é um long com os 48 bits de cima da chave e a pontuação
+// nos 16 de baixo, e uma entrada nova simplesmente substitui a antiga.
+// Cada thread da busca tem o seu, então não há sincronização.
+final class EvalCache {
+    static final int MISS = Integer.MIN_VALUE;
+    private static final long KEY_MASK = ~0xFFFFL;
+
+    private final long[] entries;
+    private final int mask;
+
+    // Número de entradas, arredondado para baixo até uma potência de 2
+    EvalCache(int size) {
+        entries = new long[Integer.highestOneBit(Math.max(1, size))];
+        mask = entries.length - 1;
+    }
+
+    // Pontuação guardada para a chave, ou MISS
+    int probe(long key) {
+        long entry = entries[(int) key & mask];
+        return entry != 0 && (entry & KEY_MASK) == (key & KEY_MASK) ? (short) entry : MISS;
+    }
+
+    void store(long key, int score) {
+        int clamped = Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, score));
+        entries[(int) key & mask] = (key & KEY_MASK) | (clamped & 0xFFFFL);
+    }
+
+    void clear() {
+        java.util.Arrays.fill(entries, 0L);
+    }
+}
@@ -0,0 +1,138 @@
+// Avaliação estática da posição: material + tabelas de casas (piece-square tables) e mobilidade.
+// Pontuação em centipeões, sempre do ponto de vista do jogador da vez.
+// Material e casas são somados pela própria Position a cada peça posta ou tirada (PSQT), então
+// avaliar não percorre o tabuleiro; a mobilidade sai dos bitboards de ataque. Se a posição
+// mantém uma rede (Nnue), a avaliação é a da rede.
+final class Evaluation {
+    private Evaluation() {}
+
+    // Valor de cada peça, na ordem de PieceType (KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN)
+    static final int[] VALUES = {0, 900, 500, 330, 320, 100};
+
+    // Tabelas desenhadas como o tabuleiro visto pelas brancas (oitava fileira no topo)
+    private static final int[] KING_MG = {
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -20,-30,-30,-40,-40,-30,-30,-20,
+            -10,-20,-20,-20,-20,-20,-20,-10,
+             20, 20,  0,  0,  0,  0, 20, 20,
+             20, 30, 10,  0,  0, 10, 30, 20};
+    private static final int[] QUEEN = {
+            -20,-10,-10, -5, -5,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5,  5,  5,  5,  0,-10,
+             -5,  0,  5,  5,  5,  5,  0, -5,
+              0,  0,  5,  5,  5,  5,  0, -5,
+            -10,  5,  5,  5,  5,  5,  0,-10,
+            -10,  0,  5,  0,  0,  0,  0,-10,
+            -20,-10,-10, -5, -5,-10,-10,-20};
+    private static final int[] ROOK = {
+              0,  0,  0,  0,  0,  0,  0,  0,
+              5, 10, 10, 10, 10, 10, 10,  5,
+             -5,  0,  0,  0,  0,  0,  0, -5,
+             -5,  0,  0,  0,  0,  0,  0, -5,
+             -5,  0,  0,  0,  0,  0,  0, -5,
+             -5,  0,  0,  0,  0,  0,  0, -5,
+             -5,  0,  0,  0,  0,  0,  0, -5,
+              0,  0,  0,  5,  5,  0,  0,  0};
+    private static final int[] BISHOP = {
+            -20,-10,-10,-10,-10,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5, 10, 10,  5,  0,-10,
+            -10,  5,  5, 10, 10,  5,  5,-10,
+            -10,  0, 10, 10, 10, 10,  0,-10,
+            -10, 10, 10, 10, 10, 10, 10,-10,
+            -10,  5,  0,  0,  0,  0,  5,-10,
+            -20,-10,-10,-10,-10,-10,-10,-20};
+    private static final int[] KNIGHT = {
+            -50,-40,-30,-30,-30,-30,-40,-50,
+            -40,-20,  0,  0,  0,  0,-20,-40,
+            -30,  0, 10, 15, 15, 10,  0,-30,
+            -30,  5, 15, 20, 20, 15,  5,-30,
+            -30,  0, 15, 20, 20, 15,  0,-30,
+            -30,  5, 10, 15, 15, 10,  5,-30,
+            -40,-20,  0,  5,  5,  0,-20,-40,
+            -50,-40,-30,-30,-30,-30,-40,-50};
+    private static final int[] PAWN = {
+              0,  0,  0,  0,  0,  0,  0,  0,
+             50, 50, 50, 50, 50, 50, 50, 50,
+             10, 10, 20, 30, 30, 20, 10, 10,
+              5,  5, 10, 25, 25, 10,  5,  5,
+              0,  0,  0, 20, 20,  0,  0,  0,
+              5, -5,-10,  0,  0,-10, -5,  5,
+              5, 10, 10,-20,-20, 10, 10,  5,
+              0,  0,  0,  0,  0,  0,  0,  0};
+
+    private static final int[][] TABLES = {KING_MG, QUEEN, ROOK, BISHOP, KNIGHT, PAWN};
+
+    // pieceSquare já com o sinal (brancas +, pretas -), por código de peça e casa
+    static final int[][] PSQT = new int[12][64];
+    static {
+        for (int code = 0; code < 12; code++)
+            for (int sq = 0; sq < 64; sq++)
+                PSQT[code][sq] = (code / 6 == Position.WHITE ? 1 : -1) * pieceSquare(code, sq);
+    }
+
+    // Mobilidade: pontos por casa alcançável além da média de cada tipo de peça
+    private static final int[] MOBILITY_WEIGHT = {0, 1, 2, 5, 4, 0};
+    private static final int[] MOBILITY_AVERAGE = {0, 14, 7, 7, 4, 0};
+
+    // Valor (material + casa) de uma peça, pelo índice do Piece e casa a1 = 0
+    static int pieceSquare(int code, int sq) {
+        int type = code % 6;
+        // As tabelas têm a8 no índice 0: brancas espelham a fileira, pretas leem direto
+        int idx = code / 6 == Position.WHITE ? sq ^ 56 : sq;
+        return VALUES[type] + TABLES[type][idx];
+    }
+
+    static int evaluate(Position pos) {
+        Nnue.Accumulator accumulator = pos.accumulator();
+        if (accumulator != null) return accumulator.evaluate(pos.getTurn().ordinal());
+        int score = pos.psqt() + mobility(pos, Position.WHITE) - mobility(pos, Position.BLACK);
+        return pos.getTurn() == PieceColor.WHITE ? score : -score;
+    }
+
+    // Casas alcançadas pelas peças da cor, fora as próprias e as atacadas por peões adversários
+    static int mobility(Position pos, int color) {
+        long occ = pos.occupancy();
+        long enemyPawns = pos.pieces(color ^ 1, Position.PAWN);
+        long pawnAttacks = color == Position.WHITE
+                ? ((enemyPawns >>> 7) & ~FILE_A) | ((enemyPawns >>> 9) & ~FILE_H)
+                : ((enemyPawns << 7) & ~FILE_H) | ((enemyPawns << 9) & ~FILE_A);
+        long allowed = ~(pos.occupancy(color) | pawnAttacks);
+        int score = 0;
+        for (int type = Position.QUEEN; type <= Position.KNIGHT; type++) {
+            for (long b = pos.pieces(color, type); b != 0; b &= b - 1) {
+                int sq = Long.numberOfTrailingZeros(b);
+                long attacks;
+                switch (type) {
+                    case Position.QUEEN: attacks = Bitboards.queenAttacks(sq, occ); break;
+                    case Position.ROOK: attacks = Bitboards.rookAttacks(sq, occ); break;
+                    case Position.BISHOP: attacks = Bitboards.bishopAttacks(sq, occ); break;
+                    default: attacks = Bitboards.KNIGHT_ATTACKS[sq];
+                }
+                score += MOBILITY_WEIGHT[type] * (Long.bitCount(attacks & allowed) - MOBILITY_AVERAGE[type]);
+            }
+        }
+        return score;
+    }
+
+    private static final long FILE_A = 0x0101010101010101L, FILE_H = FILE_A << 7;
+
+    // Material + casas recalculado do zero (confere o valor mantido pela Position)
+    static int materialAndSquares(Position pos) {
+        int score = 0;
+        for (int code = 0; code < 12; code++) {
+            long b = pos.pieces(code / 6, code % 6);
+            int sign = code / 6 == Position.WHITE ? 1 : -1;
+            while (b != 0) {
+                int sq = Long.numberOfTrailingZeros(b);
+                b &= b - 1;
+                score += sign * pieceSquare(code, sq);
+            }
+        }
+        return score;
+    }
+}
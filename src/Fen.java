@@ -0,0 +1,106 @@
+// Leitura e escrita de posições em notação FEN (Forsyth-Edwards), ex.:
+// "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"
+final class Fen {
+    private Fen() {}
+
+    static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_CHARS = "kqrbnp"; // Mesma ordem de PieceType
+
+    // Monta a posição descrita; lança IllegalArgumentException se o FEN for inválido
+    static Position parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) throw new IllegalArgumentException("FEN incompleto: " + fen);
+
+        Position pos = new Position();
+        String[] ranks = fields[0].split("/");
+        if (ranks.length != 8) throw new IllegalArgumentException("FEN precisa de 8 fileiras: " + fen);
+        int[] kings = new int[2];
+        for (int r = 0; r < 8; r++) {
+            int c = 0;
+            for (char ch : ranks[r].toCharArray()) {
+                if (ch >= '1' && ch <= '8') {
+                    c += ch - '0';
+                    continue;
+                }
+                int type = PIECE_CHARS.indexOf(Character.toLowerCase(ch));
+                if (type < 0 || c > 7) throw new IllegalArgumentException("FEN inválido: " + fen);
+                PieceColor color = Character.isUpperCase(ch) ? PieceColor.WHITE : PieceColor.BLACK;
+                if (type == Position.KING) kings[color.ordinal()]++;
+                pos.setPiece(r, c++, Piece.of(PieceType.values()[type], color));
+            }
+            if (c != 8) throw new IllegalArgumentException("Fileira com tamanho errado: " + ranks[r]);
+        }
+        if (kings[0] != 1 || kings[1] != 1)
+            throw new IllegalArgumentException("Cada lado precisa de exatamente um rei: " + fen);
+
+        switch (fields[1]) {
+            case "w": pos.setTurn(PieceColor.WHITE); break;
+            case "b": pos.setTurn(PieceColor.BLACK); break;
+            default: throw new IllegalArgumentException("Vez inválida: " + fields[1]);
+        }
+
+        int rights = 0;
+        if (fields.length > 2 && !fields[2].equals("-")) {
+            for (char ch : fields[2].toCharArray()) {
+                switch (ch) {
+                    case 'K': rights |= Position.WHITE_KINGSIDE; break;
+                    case 'Q': rights |= Position.WHITE_QUEENSIDE; break;
+                    case 'k': rights |= Position.BLACK_KINGSIDE; break;
+                    case 'q': rights |= Position.BLACK_QUEENSIDE; break;
+                    default: throw new IllegalArgumentException("Roque inválido: " + fields[2]);
+                }
+            }
+        }
+        pos.setCastlingRights(rights);
+
+        if (fields.length > 3 && !fields[3].equals("-")) pos.setEnPassantSquare(parseSquare(fields[3]));
+        try {
+            if (fields.length > 4) pos.setHalfmoveClock(Integer.parseInt(fields[4]));
+            if (fields.length > 5) pos.setFullmoveNumber(Integer.parseInt(fields[5]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Contadores inválidos no FEN: " + fen, e);
+        }
+        return pos;
+    }
+
+    // Escreve a posição em FEN. A casa de en passant só aparece quando a captura é possível
+    static String format(Position pos) {
+        StringBuilder sb = new StringBuilder(90);
+        for (int r = 0; r < 8; r++) {
+            int empty = 0;
+            for (int c = 0; c < 8; c++) {
+                int code = pos.pieceCodeAt(Bitboards.square(r, c));
+                if (code == Position.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) sb.append(empty);
+                empty = 0;
+                char ch = PIECE_CHARS.charAt(code % 6);
+                sb.append(code / 6 == Position.WHITE ? Character.toUpperCase(ch) : ch);
+            }
+            if (empty > 0) sb.append(empty);
+            if (r < 7) sb.append('/');
+        }
+        sb.append(pos.getTurn() == PieceColor.WHITE ? " w " : " b ");
+        int rights = pos.castlingRights();
+        if (rights == 0) sb.append('-');
+        if ((rights & Position.WHITE_KINGSIDE) != 0) sb.append('K');
+        if ((rights & Position.WHITE_QUEENSIDE) != 0) sb.append('Q');
+        if ((rights & Position.BLACK_KINGSIDE) != 0) sb.append('k');
+        if ((rights & Position.BLACK_QUEENSIDE) != 0) sb.append('q');
+        sb.append(' ');
+        if (pos.enPassantSquare() >= 0) Moves.appendSquare(sb, pos.enPassantSquare());
+        else sb.append('-');
+        return sb.append(' ').append(pos.halfmoveClock()).append(' ').append(pos.fullmoveNumber()).toString();
+    }
+
+    // "e3" → índice da casa (a1 = 0)
+    static int parseSquare(String s) {
+        if (s.length() != 2 || s.charAt(0) < 'a' || s.charAt(0) > 'h'
+                || s.charAt(1) < '1' || s.charAt(1) > '8')
+            throw new IllegalArgumentException("Casa inválida: " + s);
+        return (s.charAt(1) - '1') * 8 + (s.charAt(0) - 'a');
+    }
+}
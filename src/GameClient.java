@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;               // Cliente HTTP do próprio JDK
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cliente de teste do GameServer, pela interface local. Joga várias partidas ao mesmo tempo
+// (o "humano" faz lances legais ao acaso; a IA responde no servidor), mede quanto cada resposta
+// da IA demora e depois abre muitas sessões paradas para medir quanto heap cada uma ocupa.
+//
+// Uso: java GameClient [--port 8080 | --embedded] [opções]
+//   --embedded       sobe um GameServer no próprio processo, numa porta livre
+//   --engines N      instâncias da IA do servidor embutido (padrão: núcleos)
+//   --games N        partidas jogadas ao mesmo tempo (padrão 8)
+//   --plies N        lances do humano por partida, no máximo (padrão 20)
+//   --think ms       tempo por lance da IA (padrão 50)
+//   --idle N         sessões paradas abertas no fim (padrão 10000; 0 pula a medição)
+public final class GameClient {
+    static final int IDLE_CONCURRENCY = 32; // Requisições abertas ao mesmo tempo ao criar as sessões paradas
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1) // O HttpServer do JDK não fala HTTP/2
+            .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    private final String base;
+
+    GameClient(String address) {
+        base = "http://" + address;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = GameServer.DEFAULT_PORT, engines = Runtime.getRuntime().availableProcessors();
+        int games = 8, plies = 20, idle = 10_000;
+        long think = 50;
+        boolean embedded = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--embedded")) {
+                embedded = true;
+                continue;
+            }
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) throw new IllegalArgumentException("Falta o valor de " + args[i]);
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(value); break;
+                case "--engines": engines = Integer.parseInt(value); break;
+                case "--games": games = Integer.parseInt(value); break;
+                case "--plies": plies = Integer.parseInt(value); break;
+                case "--think": think = Long.parseLong(value); break;
+                case "--idle": idle = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+            i++;
+        }
+
+        GameServer server = null;
+        String address = "127.0.0.1:" + port;
+        if (embedded) {
+            server = new GameServer(new SessionManager(Math.max(1, engines), GameServer.DEFAULT_HASH_MB,
+                    GameServer.DEFAULT_MAX_SESSIONS), 0, 30 * 60_000L);
+            server.start();
+            address = server.address();
+        }
+        GameClient client = new GameClient(address);
+        try {
+            client.playGames(games, plies, think);
+            if (idle > 0) client.measureIdle(idle);
+        } finally {
+            if (server != null) server.stop();
+        }
+    }
+
+    // Partidas simultâneas até o fim ou até "plies" lances do humano
+    void playGames(int games, int plies, long think) throws Exception {
+        AtomicLong replies = new AtomicLong(), replyNanos = new AtomicLong(), worst = new AtomicLong();
+        long start = System.nanoTime();
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int g = 0; g < games; g++) {
+                String color = g % 2 == 0 ? "white" : "black";
+                results.add(pool.submit(() -> {
+                    Map<String, String> state = parse(request("POST", "/games?color=" + color + "&think=" + think, 201));
+                    String id = state.get("id");
+                    for (int p = 0; p < plies; p++) {
+                        long t0 = System.nanoTime();
+                        state = parse(request("GET", "/games/" + id + "?wait=" + GameServer.MAX_WAIT_MILLIS, 200));
+                        if (state.get("thinking").equals("true")) throw new IllegalStateException("A IA não respondeu: " + id);
+                        if (p > 0 || color.equals("black")) {
+                            long took = System.nanoTime() - t0;
+                            replies.incrementAndGet();
+                            replyNanos.addAndGet(took);
+                            worst.accumulateAndGet(took, Math::max);
+                        }
+                        if (!state.get("status").equals("ONGOING")) break;
+                        String move = randomMove(Fen.parse(state.get("fen")));
+                        state = parse(request("POST", "/games/" + id + "/move?move=" + move, 200));
+                        if (!state.get("status").equals("ONGOING")) break;
+                    }
+                    request("DELETE", "/games/" + id, 200);
+                    return state.get("result");
+                }));
+            }
+            for (Future<String> f : results) f.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long n = Math.max(1, replies.get());
+        System.out.printf("%d partidas em %.1f s: %d respostas da IA, média %.0f ms, pior %.0f ms%n",
+                games, seconds, replies.get(), replyNanos.get() / 1e6 / n, worst.get() / 1e6);
+        System.out.print(request("GET", "/stats", 200));
+    }
+
+    // Abre "count" sessões paradas e mede a diferença de heap no servidor
+    void measureIdle(int count) throws Exception {
+        long before = heapUsed();
+        long start = System.nanoTime();
+        List<Future<String>> ids = new ArrayList<>(count);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Semaphore inFlight = new Semaphore(IDLE_CONCURRENCY);
+            for (int i = 0; i < count; i++) {
+                inFlight.acquire();
+                ids.add(pool.submit(() -> {
+                    try {
+                        return parse(request("POST", "/games", 201)).get("id");
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long after = heapUsed();
+        System.out.printf("%d sessões paradas em %.1f s: heap +%.1f MB, ~%d bytes por sessão%n",
+                count, seconds, (after - before) / 1048576.0, (after - before) / count);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Future<String> id : ids) {
+                String path = "/games/" + id.get();
+                pool.submit(() -> request("DELETE", path, 200));
+            }
+        }
+    }
+
+    private long heapUsed() throws IOException, InterruptedException {
+        return Long.parseLong(parse(request("GET", "/stats?gc=1", 200)).get("heapUsed"));
+    }
+
+    private static String randomMove(Position pos) {
+        MoveList list = new MoveList();
+        pos.generateLegal(list);
+        return Moves.toString(list.get(ThreadLocalRandom.current().nextInt(list.size())));
+    }
+
+    private String request(String method, String path, int expected) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                .method(method, HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expected)
+            throw new IOException(method + " " + path + ": " + response.statusCode() + " " + response.body().trim());
+        return response.body();
+    }
+
+    // Resposta "chave valor" por linha
+    static Map<String, String> parse(String body) {
+        Map<String, String> map = new HashMap<>();
+        for (String line : body.split("\n")) {
+            int space = line.indexOf(' ');
+            if (space > 0) map.put(line.substring(0, space), line.substring(space + 1));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,52 @@
+// Relógio de xadrez dos dois jogadores, seguindo um TimeControl.
+// Só um lado corre por vez: start() liga o relógio de quem vai jogar e stop() o desliga
+// depois do lance, descontando o tempo gasto e somando o incremento.
+final class GameClock {
+    private final TimeControl control;
+    private final long[] remaining = new long[2];
+    private final int[] movesMade = new int[2];
+    private PieceColor running;
+    private long turnStart;
+
+    GameClock(TimeControl control) {
+        this.control = control;
+        remaining[Position.WHITE] = remaining[Position.BLACK] = control.baseMillis;
+    }
+
+    TimeControl control() {
+        return control;
+    }
+
+    synchronized void start(PieceColor side) {
+        running = side;
+        turnStart = System.nanoTime();
+    }
+
+    // Para o relógio de quem está jogando; devolve false se o tempo dele acabou antes do lance
+    synchronized boolean stop() {
+        if (running == null) return true;
+        int side = running.ordinal();
+        remaining[side] -= (System.nanoTime() - turnStart) / 1_000_000L;
+        running = null;
+        if (remaining[side] < 0) return false;
+        remaining[side] += control.incrementMillis;
+        movesMade[side]++;
+        if (control.movesPerPeriod > 0 && movesMade[side] % control.movesPerPeriod == 0)
+            remaining[side] += control.baseMillis;
+        return true;
+    }
+
+    // Tempo que resta para o lado, contando o lance em andamento
+    synchronized long remaining(PieceColor side) {
+        long r = remaining[side.ordinal()];
+        if (side == running) r -= (System.nanoTime() - turnStart) / 1_000_000L;
+        return r;
+    }
+
+    // Quanto a IA do lado deve pensar agora
+    synchronized long thinkTime(PieceColor side) {
+        int movesToGo = control.movesPerPeriod > 0
+                ? control.movesPerPeriod - movesMade[side.ordinal()] % control.movesPerPeriod : 0;
+        return TimeControl.allocate(remaining(side), control.incrementMillis, movesToGo);
+    }
+}
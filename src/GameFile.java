@@ -0,0 +1,196 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Arquivo de partidas codificadas por lance: cada lance ocupa 2 bytes (Moves.toShort), então
+// uma partida típica cabe em ~170 bytes, contra ~800 em PGN, e é lida sem interpretar texto.
+// Cada registro:
+//   0-1    número de lances (little-endian)
+//   2      resultado (PackedPosition.RESULT_*)
+//   3      flags: bit 0 = começa de uma posição própria
+//   4-35   a posição de início empacotada (só com o bit 0)
+//   ...    os lances, 2 bytes cada
+// A leitura é sequencial, por uma janela mapeada que avança pelo arquivo; cada partida é
+// reproduzida numa Position do chamador, que fica com os lances no histórico.
+//
+// Uso: java GameFile pgn entrada.pgn saida.bin   (partidas válidas do PGN)
+//      java GameFile scan arquivo.bin            (reproduz todas e mostra a velocidade)
+final class GameFile implements Closeable {
+    private static final int HEADER = 4;
+    private static final int FLAG_CUSTOM_START = 1;
+    private static final int MAX_RECORD = HEADER + PackedPosition.SIZE + 2 * 0xFFFF;
+    private static final long WINDOW = 64L << 20; // Bem maior que o maior registro possível
+
+    // Posição inicial já empacotada, para começar cada partida sem criar objetos
+    private static final ByteBuffer START = ByteBuffer.allocate(PackedPosition.SIZE);
+    static {
+        PackedPosition.pack(Position.initial(), PackedPosition.NO_SCORE, PackedPosition.RESULT_UNKNOWN, START, 0);
+    }
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long offset; // Início do próximo registro, no arquivo
+    private final MoveList legal = new MoveList();
+    private long games, moves;
+    private int result;
+
+    GameFile(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        map(0);
+    }
+
+    // Reproduz a próxima partida em "pos" (que é limpa antes); false no fim do arquivo
+    boolean next(Position pos) throws IOException {
+        if (offset >= size) return false;
+        if (offset + HEADER > windowStart + window.limit()) map(offset);
+        int at = (int) (offset - windowStart);
+        int plies = PackedPosition.getShort(window, at);
+        result = window.get(at + 2) & 3;
+        boolean custom = (window.get(at + 3) & FLAG_CUSTOM_START) != 0;
+        long length = HEADER + (custom ? PackedPosition.SIZE : 0) + 2L * plies;
+        if (offset + length > size) throw new IOException("Registro truncado em " + offset);
+        if (offset + length > windowStart + window.limit()) {
+            map(offset);
+            at = 0;
+        }
+
+        at += HEADER;
+        if (custom) {
+            PackedPosition.unpack(window, at, pos);
+            at += PackedPosition.SIZE;
+        } else {
+            PackedPosition.unpack(START, 0, pos);
+        }
+        for (int i = 0; i < plies; i++, at += 2) {
+            int move = Moves.fromShort(pos, (short) PackedPosition.getShort(window, at), legal);
+            if (move == Moves.NONE)
+                throw new IOException("Lance ilegal na partida " + (games + 1) + ", lance " + (i + 1));
+            pos.makeMove(move);
+        }
+        offset += length;
+        games++;
+        moves += plies;
+        return true;
+    }
+
+    // Resultado da última partida lida (PackedPosition.RESULT_*)
+    int result() {
+        return result;
+    }
+
+    long games() {
+        return games;
+    }
+
+    long moves() {
+        return moves;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Escrita sequencial: a partida vem do histórico da posição, como no Pgn
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_RECORD * 2);
+        private final ByteBuffer startOf = ByteBuffer.allocate(PackedPosition.SIZE);
+        private int[] moves = new int[256];
+        private long count;
+
+        Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        // Grava os lances do histórico de "game"; a posição volta ao estado em que estava
+        void write(Position game, int result) throws IOException {
+            int plies = game.ply();
+            if (plies > 0xFFFF) throw new IllegalArgumentException("Partida longa demais: " + plies + " lances");
+            if (moves.length < plies) moves = new int[plies * 2];
+            for (int i = plies - 1; i >= 0; i--) {
+                moves[i] = game.moveAt(i);
+                game.unmakeMove();
+            }
+            PackedPosition.pack(game, PackedPosition.NO_SCORE, PackedPosition.RESULT_UNKNOWN, startOf, 0);
+            boolean custom = !startOf.equals(START);
+            int length = HEADER + (custom ? PackedPosition.SIZE : 0) + 2 * plies;
+            if (buffer.remaining() < length) flush();
+
+            int at = buffer.position();
+            PackedPosition.putShort(buffer, at, plies);
+            buffer.put(at + 2, (byte) result);
+            buffer.put(at + 3, (byte) (custom ? FLAG_CUSTOM_START : 0));
+            at += HEADER;
+            if (custom) {
+                PackedPosition.pack(game, PackedPosition.NO_SCORE, result, buffer, at);
+                at += PackedPosition.SIZE;
+            }
+            for (int i = 0; i < plies; i++, at += 2) {
+                PackedPosition.putShort(buffer, at, Moves.toShort(moves[i]));
+                game.makeMove(moves[i]);
+            }
+            buffer.position(at);
+            count++;
+        }
+
+        long count() {
+            return count;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        if (args.length == 3 && args[0].equals("pgn")) {
+            try (PgnReader reader = new PgnReader(Paths.get(args[1])); Writer writer = new Writer(Paths.get(args[2]))) {
+                while (reader.next())
+                    if (reader.error() == null && reader.position().ply() <= 0xFFFF)
+                        writer.write(reader.position(), PackedPosition.result(reader.result()));
+                System.err.printf("%d de %d partidas gravadas em %.1f s%n", writer.count(), reader.games(),
+                        (System.nanoTime() - start) / 1e9);
+            }
+        } else if (args.length == 2 && args[0].equals("scan")) {
+            try (GameFile file = new GameFile(Paths.get(args[1]))) {
+                Position pos = new Position();
+                long[] results = new long[4];
+                while (file.next(pos)) results[file.result()]++;
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.err.printf("%d partidas, %d lances em %.1f s (%.1f M lances/s): +%d =%d -%d%n",
+                        file.games(), file.moves(), seconds, file.moves() / 1e6 / seconds,
+                        results[PackedPosition.RESULT_WHITE_WINS], results[PackedPosition.RESULT_DRAW],
+                        results[PackedPosition.RESULT_BLACK_WINS]);
+            }
+        } else {
+            System.err.println("Uso: java GameFile pgn entrada.pgn saida.bin | scan arquivo.bin");
+        }
+    }
+}
@@ -0,0 +1,222 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;      // Servidor HTTP do próprio JDK
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Servidor de partidas: muitas partidas contra a IA, cada uma numa sessão do SessionManager,
+// jogadas por HTTP na máquina local. Cada requisição roda numa virtual thread; as buscas ficam
+// com as instâncias de ChessAI do SessionManager.
+//
+// Respostas em texto, uma informação por linha ("chave valor"):
+//   id 7 / fen ... / turn WHITE / human WHITE / status ONGOING / result * / thinking false /
+//   lastmove e7e5 / moves 2 / budget 298500
+//
+// Rotas:
+//   POST   /games?fen=...&color=white|black&think=ms&budget=ms   nova partida (201)
+//   GET    /games/{id}[?wait=ms]               estado; com wait, espera a IA responder
+//   POST   /games/{id}/move?move=e2e4[&wait=ms] lance do jogador (409 fora da vez, 400 ilegal)
+//   DELETE /games/{id}                         encerra a partida
+//   GET    /stats[?gc=1]                       sessões, fila, buscas e heap
+//
+// Uso: java GameServer [--port 8080] [--engines N] [--hash MB] [--max-sessions N] [--idle-minutes N]
+public final class GameServer {
+    static final int DEFAULT_PORT = 8080;
+    static final int DEFAULT_HASH_MB = 8;          // Por instância; as partidas dividem a tabela
+    static final int DEFAULT_MAX_SESSIONS = 100_000;
+    static final long MAX_WAIT_MILLIS = 30_000;
+
+    private final SessionManager sessions;
+    private final HttpServer http;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "GameServer-sweeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Só na interface local (loopback); porta 0 escolhe uma livre
+    GameServer(SessionManager sessions, int port, long idleMillis) throws IOException {
+        this.sessions = sessions;
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        http.createContext("/games", this::handleGames);
+        http.createContext("/stats", this::handleStats);
+        long period = Math.max(1000, idleMillis / 4);
+        sweeper.scheduleAtFixedRate(() -> sessions.evictIdle(idleMillis), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT, engines = Runtime.getRuntime().availableProcessors();
+        int hashMb = DEFAULT_HASH_MB, maxSessions = DEFAULT_MAX_SESSIONS;
+        long idleMinutes = 30;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) throw new IllegalArgumentException("Falta o valor de " + args[i]);
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(value); break;
+                case "--engines": engines = Integer.parseInt(value); break;
+                case "--hash": hashMb = Integer.parseInt(value); break;
+                case "--max-sessions": maxSessions = Integer.parseInt(value); break;
+                case "--idle-minutes": idleMinutes = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+            i++;
+        }
+        GameServer server = new GameServer(new SessionManager(Math.max(1, engines), Math.max(1, hashMb), maxSessions),
+                port, idleMinutes * 60_000L);
+        server.start();
+        System.err.println("Servidor em http://" + server.address() + " (" + engines + " instâncias da IA)");
+    }
+
+    void start() {
+        http.start();
+    }
+
+    // host:porta em que o servidor está ouvindo
+    String address() {
+        InetSocketAddress a = http.getAddress();
+        return a.getHostString() + ":" + a.getPort();
+    }
+
+    void stop() {
+        http.stop(0);
+        sweeper.shutdownNow();
+        sessions.shutdown();
+    }
+
+    private void handleGames(HttpExchange ex) throws IOException {
+        try {
+            String method = ex.getRequestMethod();
+            String[] path = ex.getRequestURI().getPath().split("/"); // "", "games", id, ação
+            Map<String, String> query = query(ex.getRequestURI().getRawQuery());
+            if (path.length == 2) {
+                if (!method.equals("POST")) {
+                    send(ex, 405, "Use POST para criar uma partida\n");
+                    return;
+                }
+                create(ex, query);
+                return;
+            }
+            SessionManager.Session s = sessions.get(parseId(path[2]));
+            if (s == null) {
+                send(ex, 404, "Partida inexistente\n");
+                return;
+            }
+            if (path.length == 3 && method.equals("GET")) {
+                await(s, query);
+                send(ex, 200, describe(s));
+            } else if (path.length == 3 && method.equals("DELETE")) {
+                sessions.close(s.id);
+                send(ex, 200, "closed " + s.id + "\n");
+            } else if (path.length == 4 && path[3].equals("move") && method.equals("POST")) {
+                String move = query.get("move");
+                if (move == null) move = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).trim();
+                sessions.play(s, move);
+                await(s, query);
+                send(ex, 200, describe(s));
+            } else {
+                send(ex, 404, "Rota desconhecida\n");
+            }
+        } catch (IllegalStateException e) {
+            send(ex, 409, e.getMessage() + "\n");
+        } catch (IllegalArgumentException e) {
+            send(ex, 400, e.getMessage() + "\n");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(ex, 503, "Interrompido\n");
+        } catch (RuntimeException e) {
+            send(ex, 500, e + "\n");
+        }
+    }
+
+    private void create(HttpExchange ex, Map<String, String> query) throws IOException {
+        Position start = query.containsKey("fen") ? Fen.parse(query.get("fen")) : Position.initial();
+        PieceColor human = "black".equalsIgnoreCase(query.get("color")) ? PieceColor.BLACK : PieceColor.WHITE;
+        long think = query.containsKey("think") ? Long.parseLong(query.get("think")) : SessionManager.DEFAULT_THINK_MILLIS;
+        long budget = query.containsKey("budget") ? Long.parseLong(query.get("budget")) : SessionManager.DEFAULT_BUDGET_MILLIS;
+        SessionManager.Session s;
+        try {
+            s = sessions.create(start, human, think, budget);
+        } catch (IllegalStateException e) {
+            send(ex, 503, e.getMessage() + "\n"); // Cheio: o cliente tenta mais tarde
+            return;
+        }
+        send(ex, 201, describe(s));
+    }
+
+    // ?wait=ms: segura a resposta até a IA jogar (ou o prazo acabar)
+    private static void await(SessionManager.Session s, Map<String, String> query) throws InterruptedException {
+        String wait = query.get("wait");
+        if (wait != null) s.awaitReply(Math.min(MAX_WAIT_MILLIS, Long.parseLong(wait)));
+    }
+
+    private static long parseId(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static String describe(SessionManager.Session s) {
+        s.lock.lock();
+        try {
+            Position pos = s.position();
+            String last = s.lastMove();
+            return "id " + s.id + "\n"
+                    + "fen " + Fen.format(pos) + "\n"
+                    + "turn " + pos.getTurn() + "\n"
+                    + "human " + s.human + "\n"
+                    + "status " + pos.status() + "\n"
+                    + "result " + Pgn.result(pos) + "\n"
+                    + "thinking " + s.isThinking() + "\n"
+                    + "lastmove " + (last != null ? last : "-") + "\n"
+                    + "moves " + s.moveCount() + "\n"
+                    + "budget " + s.budgetMillis() + "\n";
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    // ?gc=1 força uma coleta antes de medir o heap (para medir o custo das sessões)
+    private void handleStats(HttpExchange ex) throws IOException {
+        if (query(ex.getRequestURI().getRawQuery()).containsKey("gc")) System.gc();
+        Runtime rt = Runtime.getRuntime();
+        send(ex, 200, "sessions " + sessions.sessionCount() + "\n"
+                + "queued " + sessions.queued() + "\n"
+                + "engines " + sessions.engines() + "\n"
+                + "searches " + sessions.searches() + "\n"
+                + "searchMillis " + sessions.searchMillis() + "\n"
+                + "heapUsed " + (rt.totalMemory() - rt.freeMemory()) + "\n");
+    }
+
+    // "a=1&b=x%20y" -> {a=1, b=x y}
+    static Map<String, String> query(String raw) {
+        Map<String, String> map = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return map;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            map.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return map;
+    }
+
+    private static void send(HttpExchange ex, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        ex.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+// Situação do jogo na posição atual: em andamento, vitória ou um dos tipos de empate
+enum GameStatus {
+    ONGOING, CHECKMATE, STALEMATE, FIFTY_MOVE_RULE, THREEFOLD_REPETITION, INSUFFICIENT_MATERIAL;
+    public boolean isOver() { return this != ONGOING; }
+    public boolean isDraw() { return this != ONGOING && this != CHECKMATE; }
+}
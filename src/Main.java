@@ -4,10 +4,22 @@ import java.awt.event.*; // Para capturar eventos do mouse e teclado
 import java.util.*; // Importa utilitários gerais (ex.: Collections, Random, List)
 import java.util.List;   // Interface de listas genéricas
 import java.util.ArrayList; // Implementação concreta de listas (ArrayList)
+import java.util.concurrent.CancellationException; // Lance da IA descartado
+import java.util.concurrent.CompletableFuture;     // Lance da IA, entregue quando a busca termina
 
 // Inicialização do jogo
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // "java Main uci": sem janela, falando UCI na entrada e saída padrão
+        if (args.length > 0 && args[0].equalsIgnoreCase("uci")) {
+            Uci.main(args);
+            return;
+        }
+        // "java Main analyze [opções]": análise em lote de FENs (veja Analysis)
+        if (args.length > 0 && args[0].equalsIgnoreCase("analyze")) {
+            Analysis.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SwingUtilities.invokeLater(ChessFrame::new);
     }
 }
@@ -26,8 +38,21 @@ class ChessFrame extends JFrame {
         statusBar = new JLabel(); // Barra inferior com a vez atual
         statusBar.setBorder(BorderFactory.createEmptyBorder(8, 12, 8, 12));
 
+        // Barra inferior: status à esquerda, botão de abandonar à direita
+        JButton resignButton = new JButton("Abandonar");
+        resignButton.addActionListener(e -> boardPanel.resign());
+        JLabel clockLabel = new JLabel(); // Relógios dos dois lados, atualizados pelo BoardPanel
+        clockLabel.setBorder(BorderFactory.createEmptyBorder(0, 12, 0, 12));
+        JPanel east = new JPanel(new BorderLayout());
+        east.add(clockLabel, BorderLayout.CENTER);
+        east.add(resignButton, BorderLayout.EAST);
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.add(statusBar, BorderLayout.CENTER);
+        bottom.add(east, BorderLayout.EAST);
+
         add(boardPanel, BorderLayout.CENTER);
-        add(statusBar, BorderLayout.SOUTH);
+        add(bottom, BorderLayout.SOUTH);
+        setJMenuBar(createMenu());
 
         // Atualiza a barra de status com base no turno atual (Brancas/Negras)
         boardPanel.setStatusListener(turn -> {
@@ -37,6 +62,11 @@ class ChessFrame extends JFrame {
                 statusBar.setText("Vez: " + (turn == PieceColor.WHITE ? "Brancas" : "Negras"));
             }
         });
+        // Enquanto a IA pensa, a barra mostra o andamento da busca a cada iteração
+        boardPanel.setSearchInfoListener(info -> statusBar.setText(describe(info)));
+        // Ex.: "Brancas 4:32 · Pretas 5:00"
+        boardPanel.setClockListener((white, black) ->
+                clockLabel.setText("Brancas " + clockText(white) + " · Pretas " + clockText(black)));
 
         // Texto inicial da barra
         statusBar.setText("Vez: " +
@@ -46,25 +76,152 @@ class ChessFrame extends JFrame {
         setLocationRelativeTo(null);      // Centraliza na tela
         setVisible(true);                 // Torna a janela visível
     }
+
+    // Ex.: "IA: prof. 7 · 1,2 M nós · 850 k nós/s · TT 42% · corte no 1º lance 91% · EBF 3,1"
+    private static String describe(SearchInfo info) {
+        StringBuilder sb = new StringBuilder("IA: prof. ").append(info.depth)
+                .append(" · ").append(count(info.nodes)).append(" nós")
+                .append(" · ").append(count(info.nodesPerSecond())).append(" nós/s")
+                .append(String.format(" · TT %.0f%%", info.ttHitRate * 100));
+        if (info.firstMoveCutoffRate > 0)
+            sb.append(String.format(" · corte no 1º lance %.0f%%", info.firstMoveCutoffRate * 100));
+        if (info.branchingFactor > 0) sb.append(String.format(" · EBF %.1f", info.branchingFactor));
+        return sb.toString();
+    }
+
+    // Tempo restante em m:ss; abaixo de 10 s também os décimos (0:09.4)
+    private static String clockText(long millis) {
+        long ms = Math.max(0, millis);
+        long seconds = ms / 1000;
+        String text = (seconds / 60) + ":" + String.format("%02d", seconds % 60);
+        return seconds < 10 ? text + "." + (ms % 1000) / 100 : text;
+    }
+
+    // Número abreviado: 850, 12 k, 1,2 M
+    private static String count(long n) {
+        if (n < 1_000) return Long.toString(n);
+        if (n < 1_000_000) return (n / 1_000) + " k";
+        return String.format("%.1f M", n / 1e6);
+    }
+
+    // Menu "Jogo": nova partida, posição em FEN e exportação em PGN
+    private JMenuBar createMenu() {
+        JMenu game = new JMenu("Jogo");
+
+        JMenuItem newGame = new JMenuItem("Nova partida");
+        newGame.addActionListener(e -> boardPanel.loadPosition(Position.initial()));
+        game.add(newGame);
+
+        JMenuItem loadFen = new JMenuItem("Carregar FEN...");
+        loadFen.addActionListener(e -> {
+            String fen = JOptionPane.showInputDialog(this, "Posição em FEN:", boardPanel.toFen());
+            if (fen == null) return;
+            try {
+                boardPanel.loadPosition(Fen.parse(fen));
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, ex.getMessage(), "FEN inválido", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+        game.add(loadFen);
+
+        JMenuItem copyFen = new JMenuItem("Copiar FEN");
+        copyFen.addActionListener(e -> Toolkit.getDefaultToolkit().getSystemClipboard()
+                .setContents(new java.awt.datatransfer.StringSelection(boardPanel.toFen()), null));
+        game.add(copyFen);
+
+        JMenuItem savePgn = new JMenuItem("Salvar PGN...");
+        savePgn.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setSelectedFile(new java.io.File("partida.pgn"));
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            try {
+                java.nio.file.Files.write(chooser.getSelectedFile().toPath(),
+                        boardPanel.toPgn().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            } catch (java.io.IOException ex) {
+                JOptionPane.showMessageDialog(this, ex.getMessage(), "Erro ao salvar", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+        game.add(savePgn);
+
+        JMenuBar bar = new JMenuBar();
+        bar.add(game);
+        return bar;
+    }
 }
 
 class BoardPanel extends JPanel implements MouseListener {
-    private static final int TILE_SIZE = 80; // Tamanho de cada quadrado do tabuleiro em pixels
-    private static final int BOARD_SIZE = 8; // Número de linhas e colunas do tabuleiro
-
-    // Matriz de peças, lista de movimentos legais, seleção atual e turno
-    private final Piece[][] board = new Piece[BOARD_SIZE][BOARD_SIZE];
+    private static final int TILE_SIZE = 80; // Tamanho inicial de cada quadrado em pixels (acompanha a janela)
+    private static final int BOARD_SIZE = Position.BOARD_SIZE; // Número de linhas e colunas do tabuleiro
+    private static final int FRAME_MILLIS = 1000 / 60;     // Animação a 60 quadros por segundo
+    private static final long ANIMATION_NANOS = 180_000_000L;
+    private static final Color SELECTED = new Color(255, 255, 0, 120);
+
+    // Imagens prontas para o tamanho atual e o que já está desenhado em cada casa: só as casas
+    // que mudam são redesenhadas
+    private BoardSprites sprites;
+    private final int[] shown = new int[BOARD_SIZE * BOARD_SIZE];
+
+    // Peça deslizando da origem ao destino do último lance; um Timer do Swing avança os quadros
+    private final javax.swing.Timer animation = new javax.swing.Timer(FRAME_MILLIS, e -> stepAnimation());
+    private int animFrom = -1, animTo = -1, animCode;
+    private long animStart;
+    private final Rectangle animRect = new Rectangle(), dirty = new Rectangle(); // Reaproveitados a cada quadro
+
+    // Posição do jogo (regras ficam no Position), lista de movimentos legais e seleção atual
+    private Position position = Position.initial();
     private final List<Point> legalMoves = new ArrayList<>();
     private Point selected = null;
-    private PieceColor turn = PieceColor.WHITE;
+    private boolean gameOver = false; // Mate ou empate: o tabuleiro não aceita mais lances
+    private String result = "*";      // Resultado no formato do PGN
     private java.util.function.Consumer<PieceColor> statusListener = t -> {};
+    private java.util.function.Consumer<SearchInfo> searchInfoListener = info -> {};
+
+    // Uma única IA para o jogo todo: pool de threads e tabela de transposição são reaproveitados.
+    // Ela roda no EngineService, nunca na thread do Swing, e segue o relógio da partida
+    private final ChessAI ai = new ChessAI();
+    private final EngineService engine = new EngineService(ai);
+    private static final TimeControl TIME_CONTROL = TimeControl.withIncrement(5 * 60_000, 2_000);
+    private GameClock clock = new GameClock(TIME_CONTROL);
+    // Mostra os relógios e detecta a queda da bandeira na hora, sem esperar o próximo lance
+    private static final int CLOCK_MILLIS = 100;
+    private final javax.swing.Timer clockTimer = new javax.swing.Timer(CLOCK_MILLIS, e -> tickClock());
+    private java.util.function.BiConsumer<Long, Long> clockListener = (white, black) -> {};
+    private CompletableFuture<Move> aiReply; // Pedido atual à IA (null se não houver)
 
     BoardPanel() {
         setPreferredSize(new Dimension(TILE_SIZE * BOARD_SIZE, TILE_SIZE * BOARD_SIZE));
         setBackground(Color.DARK_GRAY);
         setFocusable(true);
         addMouseListener(this);
-        initBoard(); // Inicializa as peças no tabuleiro
+        animation.setCoalesce(true);
+        for (int sq = 0; sq < shown.length; sq++) shown[sq] = position.pieceCodeAt(sq);
+        ai.setThreads(Runtime.getRuntime().availableProcessors());
+        // A busca avisa da thread dela; a barra é atualizada na do Swing, só se o pedido ainda vale
+        ai.setInfoListener(info -> SwingUtilities.invokeLater(() -> {
+            if (aiReply != null && !gameOver) searchInfoListener.accept(info);
+        }));
+        loadEngineFiles();
+        clock.start(PieceColor.WHITE);
+        clockTimer.start();
+    }
+
+    // Usa o que houver na pasta atual: livro de aberturas, tabelas de finais e rede de avaliação.
+    // Nada disso é obrigatório; sem eles a IA simplesmente busca com a avaliação clássica
+    private void loadEngineFiles() {
+        java.nio.file.Path book = java.nio.file.Paths.get(OpeningBook.DEFAULT_FILE);
+        java.nio.file.Path tablebases = java.nio.file.Paths.get(Tablebase.DEFAULT_DIR);
+        java.nio.file.Path network = java.nio.file.Paths.get(Nnue.DEFAULT_FILE);
+        try {
+            if (java.nio.file.Files.isRegularFile(book)) ai.setOpeningBook(OpeningBook.open(book));
+        } catch (java.io.IOException e) {
+            System.err.println("Livro de aberturas ignorado: " + e.getMessage());
+        }
+        if (java.nio.file.Files.isDirectory(tablebases)) ai.setTablebase(new Tablebase(tablebases));
+        try {
+            if (java.nio.file.Files.isRegularFile(network)) ai.setNetwork(Nnue.load(network));
+        } catch (java.io.IOException e) {
+            System.err.println("Rede de avaliação ignorada: " + e.getMessage());
+        }
     }
 
     // Permite que o ChessFrame receba notificações de mudança de turno
@@ -72,102 +229,145 @@ class BoardPanel extends JPanel implements MouseListener {
         this.statusListener = listener != null ? listener : t -> {};
     }
 
+    // Tempo restante das brancas e das pretas, em ms, a cada CLOCK_MILLIS
+    void setClockListener(java.util.function.BiConsumer<Long, Long> listener) {
+        this.clockListener = listener != null ? listener : (white, black) -> {};
+        tickClock();
+    }
+
+    // Andamento da busca (profundidade, nós...), a cada iteração enquanto a IA pensa
+    void setSearchInfoListener(java.util.function.Consumer<SearchInfo> listener) {
+        this.searchInfoListener = listener != null ? listener : info -> {};
+    }
+
     public PieceColor getTurn() {
-        return turn;  // Retorna de quem é a vez: WHITE (Brancas) ou BLACK (Pretas)
-    }
-
-    private void initBoard() {
-        // Peças pretas na linha superior
-        board[0][0] = new Piece(PieceType.ROOK, PieceColor.BLACK);
-        board[0][1] = new Piece(PieceType.KNIGHT, PieceColor.BLACK);
-        board[0][2] = new Piece(PieceType.BISHOP, PieceColor.BLACK);
-        board[0][3] = new Piece(PieceType.QUEEN, PieceColor.BLACK);
-        board[0][4] = new Piece(PieceType.KING, PieceColor.BLACK);
-        board[0][5] = new Piece(PieceType.BISHOP, PieceColor.BLACK);
-        board[0][6] = new Piece(PieceType.KNIGHT, PieceColor.BLACK);
-        board[0][7] = new Piece(PieceType.ROOK, PieceColor.BLACK);
-        for (int c = 0; c < BOARD_SIZE; c++)
-            board[1][c] = new Piece(PieceType.PAWN, PieceColor.BLACK);
-
-        // Peças brancas na base
-        for (int c = 0; c < BOARD_SIZE; c++)
-            board[6][c] = new Piece(PieceType.PAWN, PieceColor.WHITE);
-
-        board[7][0] = new Piece(PieceType.ROOK, PieceColor.WHITE);
-        board[7][1] = new Piece(PieceType.KNIGHT, PieceColor.WHITE);
-        board[7][2] = new Piece(PieceType.BISHOP, PieceColor.WHITE);
-        board[7][3] = new Piece(PieceType.QUEEN, PieceColor.WHITE);
-        board[7][4] = new Piece(PieceType.KING, PieceColor.WHITE);
-        board[7][5] = new Piece(PieceType.BISHOP, PieceColor.WHITE);
-        board[7][6] = new Piece(PieceType.KNIGHT, PieceColor.WHITE);
-        board[7][7] = new Piece(PieceType.ROOK, PieceColor.WHITE);
-    }
-
-    // Desenha o tabuleiro e as peças na tela:
+        return position.getTurn();  // Retorna de quem é a vez: WHITE (Brancas) ou BLACK (Pretas)
+    }
+
+    // Desenha o tabuleiro e as peças na tela, copiando as imagens prontas. Só as casas dentro
+    // da área a redesenhar (clip) são percorridas
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        int tile = tile();
+        BoardSprites s = sprites(tile);
         Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        // Desenha o tabuleiro em padrão quadriculado
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                boolean light = (r + c) % 2 == 0;
-                g2.setColor(light ? Color.WHITE : Color.BLACK);
-                g2.fillRect(c * TILE_SIZE, r * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-            }
+        Rectangle clip = g2.getClipBounds();
+        int c0 = 0, r0 = 0, c1 = BOARD_SIZE - 1, r1 = BOARD_SIZE - 1;
+        if (clip != null) {
+            c0 = Math.max(0, clip.x / tile);
+            r0 = Math.max(0, clip.y / tile);
+            c1 = Math.min(BOARD_SIZE - 1, (clip.x + clip.width - 1) / tile);
+            r1 = Math.min(BOARD_SIZE - 1, (clip.y + clip.height - 1) / tile);
         }
 
+        // Quadriculado com as coordenadas (a–h / 1–8), numa imagem só
+        g2.drawImage(s.board, 0, 0, null);
+
         // Destaque da peça selecionada e seus movimentos possíveis
         if (selected != null) {
-            g2.setColor(new Color(255, 255, 0, 120));
-            g2.fillRect(selected.y * TILE_SIZE, selected.x * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-            g2.setColor(new Color(0, 255, 0, 120));
-            for (Point p : legalMoves) {
-                int x = p.y * TILE_SIZE, y = p.x * TILE_SIZE, pad = TILE_SIZE / 4;
-                g2.fillOval(x + pad, y + pad, TILE_SIZE - pad * 2, TILE_SIZE - pad * 2);
+            g2.setColor(SELECTED);
+            g2.fillRect(selected.y * tile, selected.x * tile, tile, tile);
+            for (Point p : legalMoves)
+                if (p.x >= r0 && p.x <= r1 && p.y >= c0 && p.y <= c1)
+                    g2.drawImage(s.target, p.y * tile, p.x * tile, null);
+        }
+
+        // Peças (a que está sendo animada é desenhada por último, onde estiver)
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int sq = Bitboards.square(r, c);
+                int code = position.pieceCodeAt(sq);
+                if (code != Position.EMPTY && sq != animTo) g2.drawImage(s.pieces[code], c * tile, r * tile, null);
             }
         }
+        if (animTo >= 0) g2.drawImage(s.pieces[animCode], animRect.x, animRect.y, null);
 
-        // Desenha as peças em Unicode com sombra
-        g2.setFont(new Font("SansSerif", Font.PLAIN, (int)(TILE_SIZE * 0.75)));
-        FontMetrics fm = g2.getFontMetrics();
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                Piece piece = board[r][c];
-                if (piece != null) {
-                    String s = piece.unicode();
-                    int textW = fm.stringWidth(s), textH = fm.getAscent();
-                    int x = c * TILE_SIZE + (TILE_SIZE - textW) / 2;
-                    int y = r * TILE_SIZE + (TILE_SIZE + textH) / 2 - 6;
-
-                    Color pieceColor = piece.color == PieceColor.WHITE
-                            ? new Color(245, 245, 245)
-                            : new Color(18, 18, 18);
-                    Color shadowColor = piece.color == PieceColor.WHITE
-                            ? new Color(0, 0, 0, 180)
-                            : new Color(255, 255, 255, 180);
-
-                    g2.setColor(shadowColor);
-                    g2.drawString(s, x + 2, y + 2);
-                    g2.setColor(pieceColor);
-                    g2.drawString(s, x, y);
-                }
+        g2.dispose();
+    }
+
+    // Tamanho da casa para o tamanho atual do painel
+    private int tile() {
+        return Math.max(1, Math.min(getWidth(), getHeight()) / BOARD_SIZE);
+    }
+
+    // Imagens do tamanho pedido; refeitas só quando a janela muda de tamanho
+    private BoardSprites sprites(int tile) {
+        if (sprites == null || sprites.tile != tile) sprites = new BoardSprites(tile, getGraphicsConfiguration());
+        return sprites;
+    }
+
+    private void repaintSquare(int r, int c) {
+        int tile = tile();
+        repaint(c * tile, r * tile, tile, tile);
+    }
+
+    // Casa selecionada e destinos marcados
+    private void repaintSelection() {
+        if (selected == null) return;
+        repaintSquare(selected.x, selected.y);
+        for (Point p : legalMoves) repaintSquare(p.x, p.y);
+    }
+
+    // Troca a seleção (null = nenhuma), redesenhando só as casas marcadas antes e depois
+    private void select(Point square) {
+        repaintSelection();
+        selected = square;
+        recomputeLegalMoves();
+        repaintSelection();
+    }
+
+    // Compara a posição com o que está desenhado e redesenha só as casas que mudaram
+    // (um lance comum: 2 casas; roque e en passant: 3 ou 4)
+    private void boardChanged() {
+        for (int sq = 0; sq < shown.length; sq++) {
+            int code = position.pieceCodeAt(sq);
+            if (code != shown[sq]) {
+                shown[sq] = code;
+                repaintSquare(Bitboards.row(sq), Bitboards.col(sq));
             }
         }
+    }
 
-        // Coordenadas do tabuleiro (a–h / 1–8)
-        g2.setColor(new Color(0, 0, 0, 140));
-        g2.setFont(getFont().deriveFont(Font.PLAIN, 12));
-        for (int c = 0; c < BOARD_SIZE; c++)
-            g2.drawString(String.valueOf((char)('a' + c)),
-                    c * TILE_SIZE + 4, BOARD_SIZE * TILE_SIZE - 4);
-        for (int r = 0; r < BOARD_SIZE; r++)
-            g2.drawString(String.valueOf(BOARD_SIZE - r),
-                    2, r * TILE_SIZE + 14);
+    // Começa a deslizar a peça do lance recém-feito; uma animação anterior é encerrada
+    private void animate(Move mv) {
+        if (animTo >= 0) repaint(animRect);
+        animFrom = Bitboards.square(mv.fromR, mv.fromC);
+        animTo = Bitboards.square(mv.toR, mv.toC);
+        animCode = position.pieceCodeAt(animTo);
+        animStart = System.nanoTime();
+        int tile = tile();
+        animRect.setBounds(mv.fromC * tile, mv.fromR * tile, tile, tile);
+        animation.restart();
+    }
 
-        g2.dispose();
+    // Um quadro: redesenha só a área entre a posição anterior da peça e a nova
+    private void stepAnimation() {
+        if (animTo < 0) {
+            animation.stop();
+            return;
+        }
+        int tile = tile();
+        double t = Math.min(1.0, (System.nanoTime() - animStart) / (double) ANIMATION_NANOS);
+        double eased = 1 - (1 - t) * (1 - t) * (1 - t); // Desacelera ao chegar
+        int fromX = Bitboards.col(animFrom) * tile, fromY = Bitboards.row(animFrom) * tile;
+        int toX = Bitboards.col(animTo) * tile, toY = Bitboards.row(animTo) * tile;
+        dirty.setBounds(animRect);
+        animRect.setBounds(fromX + (int) Math.round((toX - fromX) * eased),
+                fromY + (int) Math.round((toY - fromY) * eased), tile, tile);
+        dirty.add(animRect);
+        if (t >= 1.0) {
+            animTo = animFrom = -1;
+            animation.stop();
+        }
+        repaint(dirty);
+    }
+
+    // Encerra a animação em andamento (ex.: posição nova carregada)
+    private void stopAnimation() {
+        animation.stop();
+        if (animTo >= 0) repaint(animRect);
+        animTo = animFrom = -1;
     }
 
     // Faz a intereçao das das peças com o mouse
@@ -181,398 +381,271 @@ class BoardPanel extends JPanel implements MouseListener {
     @Override public void mouseExited(MouseEvent e) {}
 
     private void handleClick(MouseEvent e) {
-        int c = e.getX() / TILE_SIZE, r = e.getY() / TILE_SIZE;
-        if (!inBounds(r, c)) return;
+        int tile = tile();
+        int c = e.getX() / tile, r = e.getY() / tile;
+        if (gameOver || !inBounds(r, c)) return;
 
+        PieceColor turn = position.getTurn();
+        if (turn == PieceColor.BLACK) return; // A IA está pensando
         if (selected == null) {
-            Piece piece = board[r][c];
-            if (piece != null && piece.color == turn) {
-                selected = new Point(r, c);
-                recomputeLegalMoves();
-                repaint();
-            }
+            Piece piece = position.pieceAt(r, c);
+            if (piece != null && piece.color == turn) select(new Point(r, c));
         } else {
-            Piece target = board[r][c];
+            Piece target = position.pieceAt(r, c);
             if (target != null && target.color == turn) {
-                selected = new Point(r, c);
-                recomputeLegalMoves();
-                repaint();
+                select(new Point(r, c));
                 return;
             }
             boolean isLegal = legalMoves.stream().anyMatch(p -> p.x == r && p.y == c);
             if (isLegal) {
-                move(selected.x, selected.y, r, c);
-                selected = null;
-                legalMoves.clear();
-                repaint();
+                // Peão chegando na última fileira: o jogador escolhe a peça
+                Piece moving = position.pieceAt(selected.x, selected.y);
+                PieceType promotion = moving.type == PieceType.PAWN && (r == 0 || r == BOARD_SIZE - 1)
+                        ? askPromotion(moving.color) : null;
+                Move mv = new Move(selected.x, selected.y, r, c, promotion);
+                select(null);
+                move(mv);
             } else {
-                selected = null;
-                legalMoves.clear();
-                repaint();
+                select(null);
             }
         }
     }
 
-    private void move(int r0, int c0, int r1, int c1) {
-        Piece p = board[r0][c0];
-        board[r1][c1] = p;
-        board[r0][c0] = null;
+    // Pergunta para qual peça o peão será promovido (fechar a janela escolhe a rainha)
+    private PieceType askPromotion(PieceColor color) {
+        PieceType[] options = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+        String[] labels = new String[options.length];
+        for (int i = 0; i < options.length; i++) labels[i] = Piece.of(options[i], color).unicode();
+        int choice = JOptionPane.showOptionDialog(this, "Promover o peão para:", "Promoção",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, labels, labels[0]);
+        return choice >= 0 ? options[choice] : PieceType.QUEEN;
+    }
 
-        // Promoção para rainha
-        if (p.type == PieceType.PAWN) {
-            if (p.color == PieceColor.WHITE && r1 == 0)
-                board[r1][c1] = new Piece(PieceType.QUEEN, PieceColor.WHITE);
-            if (p.color == PieceColor.BLACK && r1 == 7)
-                board[r1][c1] = new Piece(PieceType.QUEEN, PieceColor.BLACK);
+    private void move(Move mv) {
+        if (gameOver) return; // Ex.: a bandeira caiu com a janela de promoção aberta
+        // Para o relógio de quem jogou: se o tempo acabou antes do lance, ele perde
+        PieceColor mover = position.getTurn();
+        if (!clock.stop()) {
+            flagFall(mover);
+            return;
         }
+        position.makeMove(mv);
+        animate(mv);
+        boardChanged();
 
-        // Alterna o turno e atualiza a barra
-        turn = turn.opposite();
+        // Atualiza a barra com o novo turno
+        PieceColor turn = position.getTurn();
         statusListener.accept(turn);
 
-        // Se for vez da IA (pretas), chama a função da IA
-        if (turn == PieceColor.BLACK) {
-            AiMove();
+        // Fim de jogo: xeque-mate, afogamento ou empate por regra
+        GameStatus status = position.status();
+        if (status.isOver()) {
+            endGame(Pgn.result(position));
+            showResult(status, turn);
+            return;
         }
+        clock.start(turn);
 
-        // Verifica xeque-mate
-        if (isCheckmate(turn)) {
-            String msg = (turn == PieceColor.WHITE ? "Pretas" : "Brancas") +
-                    " venceram por xeque-mate!";
-            JOptionPane.showMessageDialog(this, msg, "Xeque-mate",
-                    JOptionPane.INFORMATION_MESSAGE);
+        // Se for vez da IA (pretas), chama a função da IA; senão ela pondera no tempo do jogador
+        if (turn == PieceColor.BLACK) {
+            AiMove();
+        } else {
+            engine.ponder(position);
         }
     }
-    private void AiMove() {
-        ChessAI ai = new ChessAI();
-        // Mostra "IA: Pensando..." na barra
-        statusListener.accept(null);
 
-        new javax.swing.SwingWorker<Move, Void>() {
-            @Override
-            protected Move doInBackground() {
-                // Delay artificial de 1.5 segundos
-                try {
-                    Thread.sleep(1500); // 1500ms = 1,5 segundos
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                return ai.getBestMove(board, PieceColor.BLACK, BoardPanel.this);
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    Move best = get();
-                    if (best != null) {
-                        move(best.fromR, best.fromC, best.toR, best.toC);
-                        repaint();
-                    }
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
-            }
-        }.execute();
+    // A cada CLOCK_MILLIS, na thread do Swing: atualiza os relógios e encerra a partida assim
+    // que o tempo de quem está jogando acaba
+    private void tickClock() {
+        long white = clock.remaining(PieceColor.WHITE), black = clock.remaining(PieceColor.BLACK);
+        clockListener.accept(white, black);
+        if (gameOver) return;
+        if (white <= 0) flagFall(PieceColor.WHITE);
+        else if (black <= 0) flagFall(PieceColor.BLACK);
     }
 
-
-
-    // Recalcula os movimentos legais da peça selecionada
-    private void recomputeLegalMoves() {
-        legalMoves.clear();
-        if (selected == null) return;
-        int r = selected.x, c = selected.y;
-        Piece p = board[r][c];
-        if (p == null) return;
-        switch (p.type) {
-            case PAWN:
-                computePawnMoves(r, c, p.color);
-                break;
-            case KNIGHT:
-                addKnightMoves(r, c, p.color);
-                break;
-            case BISHOP:
-                addSlidingMoves(r, c, p.color, new int[][]{{1,1},{1,-1},{-1,1},{-1,-1}});
-                break;
-            case ROOK:
-                addSlidingMoves(r, c, p.color, new int[][]{{1,0},{-1,0},{0,1},{0,-1}});
-                break;
-            case QUEEN:
-                addSlidingMoves(r, c, p.color, new int[][]{
-                        {1,1},{1,-1},{-1,1},{-1,-1},{1,0},{-1,0},{0,1},{0,-1}
-                });
-                break;
-            case KING:
-                addKingMoves(r, c, p.color);
-                break;
-        }
-        // Filtro: captura de rei e movimentos que deixam em xeque
-        Iterator<Point> it = legalMoves.iterator();
-        while (it.hasNext()) {
-            Point mv = it.next();
-            Piece target = board[mv.x][mv.y];
-            if (target != null && target.type == PieceType.KING) {
-                it.remove();
-                continue;
-            }
-            if (wouldLeaveKingInCheck(r, c, mv.x, mv.y)) {
-                it.remove();
-            }
-        }
+    // O tempo do lado acabou: ele perde
+    private void flagFall(PieceColor side) {
+        endGame(side == PieceColor.WHITE ? "0-1" : "1-0");
+        clockListener.accept(clock.remaining(PieceColor.WHITE), clock.remaining(PieceColor.BLACK));
+        JOptionPane.showMessageDialog(this, (side == PieceColor.WHITE ? "Pretas" : "Brancas")
+                + " venceram por tempo!", "Fim de jogo", JOptionPane.INFORMATION_MESSAGE);
     }
 
-    // Verifica se o jogador de vez não tem movimentos legais e está em xeque
-    private boolean isCheckmate(PieceColor currentTurn) {
-        if (!isInCheck(currentTurn)) return false;
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                Piece piece = board[r][c];
-                if (piece != null && piece.color == currentTurn) {
-                    if (!computeLegalMoves(r, c).isEmpty()) return false;
-                }
-            }
-        }
-        return true;
-    }
-
-    // Verifica se o rei da cor está em xeque
-    private boolean isInCheck(PieceColor color) {
-        Point kingPos = findKing(color, board);
-        return kingPos != null &&
-                isSquareAttacked(kingPos.x, kingPos.y, color.opposite(), board);
-    }
-
-    // Computa movimentos legais válidos de (r,c) sem alterar seleção
-    public List<Point> computeLegalMoves(int r, int c) {
-        List<Point> moves = new ArrayList<>();
-        Piece piece = board[r][c];
-        if (piece == null) return moves;
-        switch (piece.type) {
-            case PAWN:
-                computePawnMoves(r, c, piece.color, moves); break;
-            case KNIGHT:
-                addKnightMoves(r, c, piece.color, moves); break;
-            case BISHOP:
-                addSlidingMoves(r, c, piece.color,
-                        new int[][]{{1,1},{1,-1},{-1,1},{-1,-1}}, moves); break;
-            case ROOK:
-                addSlidingMoves(r, c, piece.color,
-                        new int[][]{{1,0},{-1,0},{0,1},{0,-1}}, moves); break;
-            case QUEEN:
-                addSlidingMoves(r, c, piece.color,
-                        new int[][]{
-                                {1,1},{1,-1},{-1,1},{-1,-1},{1,0},{-1,0},{0,1},{0,-1}
-                        }, moves); break;
-            case KING:
-                addKingMoves(r, c, piece.color, moves); break;
-        }
-        // Remove movimentos que deixam o rei em xeque
-        moves.removeIf(mv -> wouldLeaveKingInCheck(r, c, mv.x, mv.y));
-        return moves;
-    }
-
-    // Métodos de geração de movimentos
-    private void computePawnMoves(int r, int c, PieceColor color, List<Point> m) {
-        int dir = (color == PieceColor.WHITE) ? -1 : 1;
-        int startRow = (color == PieceColor.WHITE) ? 6 : 1;
-        int nextR = r + dir;
-        if (inBounds(nextR, c) && board[nextR][c] == null) m.add(new Point(nextR, c));
-        int twoR = r + 2 * dir;
-        if (r == startRow && inBounds(nextR, c) && board[nextR][c] == null &&
-                inBounds(twoR, c) && board[twoR][c] == null) m.add(new Point(twoR, c));
-        for (int d : new int[]{-1, 1}) {
-            int cr = r + dir, cc = c + d;
-            if (inBounds(cr, cc) && board[cr][cc] != null &&
-                    board[cr][cc].color != color) {
-                m.add(new Point(cr, cc));
-            }
-        }
+    // O jogador (brancas) abandona a partida
+    void resign() {
+        if (gameOver) return;
+        endGame("0-1");
+        JOptionPane.showMessageDialog(this, "Brancas abandonaram. Pretas venceram!", "Fim de jogo",
+                JOptionPane.INFORMATION_MESSAGE);
     }
 
-    // Calculam os movimentos do cavalo
-    private void addKnightMoves(int r, int c, PieceColor color, List<Point> m) {
-        for (int[] j : new int[][]{{-2,-1},{-2,1},{-1,-2},{-1,2},{1,-2},{1,2},{2,-1},{2,1}}) {
-            int rr = r + j[0], cc = c + j[1];
-            if (!inBounds(rr, cc)) continue;
-            Piece t = board[rr][cc];
-            if (t == null || t.color != color) m.add(new Point(rr, cc));
-        }
-    }
-
-    // Calculam os movimentos do rei
-    private void addKingMoves(int r, int c, PieceColor color, List<Point> m) {
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                if (dr == 0 && dc == 0) continue;
-                int rr = r + dr, cc = c + dc;
-                if (!inBounds(rr, cc)) continue;
-                Piece t = board[rr][cc];
-                if (t == null || t.color != color) m.add(new Point(rr, cc));
-            }
+    // Começa uma partida nova a partir da posição dada (ex.: carregada de um FEN)
+    void loadPosition(Position pos) {
+        aiReply = null;
+        engine.cancel();
+        clock.stop();
+        position = pos;
+        clock = new GameClock(TIME_CONTROL);
+        gameOver = false;
+        result = "*";
+        select(null);
+        stopAnimation();
+        boardChanged();
+
+        PieceColor turn = position.getTurn();
+        statusListener.accept(turn);
+        GameStatus status = position.status();
+        if (status.isOver()) {
+            endGame(Pgn.result(position));
+            showResult(status, turn);
+            return;
         }
+        clock.start(turn);
+        if (turn == PieceColor.BLACK) AiMove();
     }
 
-    // movimentos das peças que deslizam pelo tabuleiro: bispo, torre e rainha.
-    private void addSlidingMoves(int r, int c, PieceColor color,
-                                 int[][] dirs, List<Point> m) {
-        for (int[] d : dirs) {
-            int rr = r + d[0], cc = c + d[1];
-            while (inBounds(rr, cc)) {
-                Piece t = board[rr][cc];
-                if (t == null) {
-                    m.add(new Point(rr, cc));
-                } else {
-                    if (t.color != color) m.add(new Point(rr, cc));
-                    break;
-                }
-                rr += d[0]; cc += d[1];
-            }
-        }
+    String toFen() {
+        return Fen.format(position);
     }
 
-    // Métodos que usam a lista legalMoves padrão do tabuleiro
-    private void computePawnMoves(int r, int c, PieceColor color) {
-        computePawnMoves(r, c, color, legalMoves); // Calcula movimentos legais do peão
-    }
-    private void addKnightMoves(int r, int c, PieceColor color) {
-        addKnightMoves(r, c, color, legalMoves); // Calcula movimentos do cavalo
-    }
-    private void addKingMoves(int r, int c, PieceColor color) {
-        addKingMoves(r, c, color, legalMoves); // Calcula movimentos do rei
-    }
-    private void addSlidingMoves(int r, int c, PieceColor color, int[][] dirs) {
-        addSlidingMoves(r, c, color, dirs, legalMoves); // Calcula movimentos de peças que deslizam (torre, bispo, rainha)
+    // Partida desde a última posição carregada, em PGN
+    String toPgn() {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Jogo de Xadrez");
+        tags.put("White", "Jogador");
+        tags.put("Black", "ChessAI");
+        tags.put("Result", result);
+        tags.put("TimeControl", TIME_CONTROL.baseMillis / 1000 + "+" + TIME_CONTROL.incrementMillis / 1000);
+        return Pgn.write(position, tags);
     }
 
-    // Verifica se um movimento deixaria o rei em xeque
-    private boolean wouldLeaveKingInCheck(int fromR, int fromC, int toR, int toC) {
-        Piece moving = board[fromR][fromC];
-        if (moving == null) return true; // Sem peça → movimento ilegal
-        Piece[][] copy = copyBoard(board); // Cópia do tabuleiro
-        copy[toR][toC] = copy[fromR][fromC]; // Move a peça na cópia
-        copy[fromR][fromC] = null;
-        Point kingPos = findKing(moving.color, copy); // Posição do rei da cor
-        return kingPos == null || isSquareAttacked(
-                kingPos.x, kingPos.y, moving.color.opposite(), copy); // Retorna true se o rei fica em xeque
+    // Encerra o jogo: o tabuleiro não aceita mais lances e a IA para de pensar
+    private void endGame(String result) {
+        this.result = result;
+        gameOver = true;
+        aiReply = null;
+        engine.cancel();
+        clock.stop();
+        select(null);
     }
 
-    // Cria cópia do tabuleiro
-    private Piece[][] copyBoard(Piece[][] src) {
-        Piece[][] c = new Piece[BOARD_SIZE][BOARD_SIZE];
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int s = 0; s < BOARD_SIZE; s++) {
-                Piece p = src[r][s];
-                c[r][s] = (p != null) ? new Piece(p.type, p.color) : null;
-            }
+    private void showResult(GameStatus status, PieceColor turn) {
+        String msg;
+        switch (status) {
+            case CHECKMATE:
+                msg = (turn == PieceColor.WHITE ? "Pretas" : "Brancas") + " venceram por xeque-mate!";
+                break;
+            case STALEMATE: msg = "Empate por afogamento."; break;
+            case FIFTY_MOVE_RULE: msg = "Empate pela regra dos 50 lances."; break;
+            case THREEFOLD_REPETITION: msg = "Empate por repetição tripla."; break;
+            default: msg = "Empate por material insuficiente."; break;
         }
-        return c;
+        JOptionPane.showMessageDialog(this, msg, status == GameStatus.CHECKMATE ? "Xeque-mate" : "Empate",
+                JOptionPane.INFORMATION_MESSAGE);
     }
+    private void AiMove() {
+        // Mostra "IA: Pensando..." na barra
+        statusListener.accept(null);
 
-    // Procura o rei de determinada pela cor
-    private Point findKing(PieceColor color, Piece[][] b) {
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                Piece p = b[r][c];
-                if (p != null && p.type == PieceType.KING && p.color == color)
-                    return new Point(r, c);
-            }
-        }
-        return null;
-    }
-
-    // Verifica se uma casa está sendo atacada pelo adversário
-    private boolean isSquareAttacked(int r, int c, PieceColor attacker, Piece[][] b) {
-        // Checa ataques de peões
-        int pawnDir = (attacker == PieceColor.WHITE) ? -1 : 1;
-        int pr = r - pawnDir;
-        for (int dc : new int[]{-1, 1}) {
-            int pc = c + dc;
-            if (inBounds(pr, pc)) {
-                Piece p = b[pr][pc];
-                if (p != null && p.type == PieceType.PAWN && p.color == attacker) return true;
-            }
-        }
-
-        // Checa ataques de cavalos
-        for (int[] j : new int[][]{{-2,-1},{-2,1},{-1,-2},{-1,2},{1,-2},{1,2},{2,-1},{2,1}}) {
-            int rr = r + j[0], cc = c + j[1];
-            if (inBounds(rr, cc)) {
-                Piece p = b[rr][cc];
-                if (p != null && p.type == PieceType.KNIGHT && p.color == attacker)
-                    return true;
-            }
-        }
-
-        // Checa ataques do rei
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                if (dr == 0 && dc == 0) continue;
-                int rr = r + dr, cc2 = c + dc;
-                if (inBounds(rr, cc2)) {
-                    Piece p = b[rr][cc2];
-                    if (p != null && p.type == PieceType.KING && p.color == attacker)
-                        return true;
-                }
-            }
-        }
-
-        // Checa ataques de peças deslizantes (torre, bispo, rainha)
-        int[][] dirs = {{1,0},{-1,0},{0,1},{0,-1},{1,1},{1,-1},{-1,1},{-1,-1}};
-        for (int[] d : dirs) {
-            int rr = r + d[0], cc2 = c + d[1];
-            while (inBounds(rr, cc2)) {
-                Piece p = b[rr][cc2];
-                if (p != null) {
-                    if (p.color == attacker) {
-                        if (Math.abs(d[0]) == Math.abs(d[1])) { // diagonal → bispo ou rainha
-                            if (p.type == PieceType.BISHOP || p.type == PieceType.QUEEN)
-                                return true;
-                        } else { // reta → torre ou rainha
-                            if (p.type == PieceType.ROOK || p.type == PieceType.QUEEN)
-                                return true;
-                        }
-                    }
-                    break; // outra peça bloqueia
-                }
-                rr += d[0]; cc2 += d[1];
+        // A IA pensa numa cópia da posição, pelo tempo que o relógio dela permite
+        CompletableFuture<Move> reply = engine.think(position, clock.thinkTime(PieceColor.BLACK));
+        aiReply = reply;
+        reply.whenComplete((best, error) -> SwingUtilities.invokeLater(() -> {
+            if (reply != aiReply || gameOver) return; // Pedido cancelado ou substituído
+            aiReply = null;
+            if (error != null) {
+                if (!(error instanceof CancellationException)) error.printStackTrace();
+                return;
             }
-        }
+            if (best != null) move(best);
+        }));
+    }
 
-        return false;
+    // Recalcula os movimentos legais da peça selecionada
+    private void recomputeLegalMoves() {
+        legalMoves.clear();
+        if (selected == null) return;
+        for (Move mv : position.legalMovesFrom(selected.x, selected.y))
+            legalMoves.add(new Point(mv.toR, mv.toC));
     }
 
     // Verifica se a posição está dentro do tabuleiro
     private boolean inBounds(int r, int c) {
-        return r >= 0 && r < BOARD_SIZE && c >= 0 && c < BOARD_SIZE;
+        return Position.inBounds(r, c);
     }
 }
-// Tipos de peças do xadrez
-enum PieceType { KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN }
-
-// Cores das peças
-enum PieceColor {
-    WHITE, BLACK;
-    public PieceColor opposite() { return this == WHITE ? BLACK : WHITE; }
-}
 
-// Classe que representa uma peça do tabuleiro
-class Piece {
-    final PieceType type;
-    final PieceColor color;
-    Piece(PieceType type, PieceColor color) {
-        this.type = type;
-        this.color = color;
-    }
-    // Utiliza Unicode para renderizar as peças gráficas
-    String unicode() {
-        switch (type) {
-            case KING:   return color == PieceColor.WHITE ? "♔" : "♚";
-            case QUEEN:  return color == PieceColor.WHITE ? "♕" : "♛";
-            case ROOK:   return color == PieceColor.WHITE ? "♖" : "♜";
-            case BISHOP: return color == PieceColor.WHITE ? "♗" : "♝";
-            case KNIGHT: return color == PieceColor.WHITE ? "♘" : "♞";
-            case PAWN:   return color == PieceColor.WHITE ? "♙" : "♟";
+// Imagens prontas do tabuleiro para um tamanho de casa: o quadriculado já com as coordenadas,
+// cada peça já com a sombra e a marca das casas de destino. Pintar vira copiar imagens; fonte,
+// cores e medidas dos caracteres só são calculadas de novo quando o tamanho muda.
+final class BoardSprites {
+    private static final Color LIGHT = Color.WHITE, DARK = Color.BLACK;
+    private static final Color COORDINATES = new Color(0, 0, 0, 140);
+    private static final Color TARGET = new Color(0, 255, 0, 120);
+    private static final Color WHITE_PIECE = new Color(245, 245, 245), WHITE_SHADOW = new Color(0, 0, 0, 180);
+    private static final Color BLACK_PIECE = new Color(18, 18, 18), BLACK_SHADOW = new Color(255, 255, 255, 180);
+
+    final int tile;
+    final Image board;
+    final Image target;
+    final Image[] pieces = new Image[12]; // Pelo código da peça (Piece.index)
+
+    BoardSprites(int tile, GraphicsConfiguration gc) {
+        this.tile = tile;
+        int size = tile * Position.BOARD_SIZE;
+
+        board = image(gc, size, size, Transparency.OPAQUE);
+        Graphics2D g = (Graphics2D) board.getGraphics();
+        for (int r = 0; r < Position.BOARD_SIZE; r++) {
+            for (int c = 0; c < Position.BOARD_SIZE; c++) {
+                g.setColor((r + c) % 2 == 0 ? LIGHT : DARK);
+                g.fillRect(c * tile, r * tile, tile, tile);
+            }
         }
-        return "?";
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(COORDINATES);
+        g.setFont(new Font("SansSerif", Font.PLAIN, Math.max(8, tile * 12 / 80)));
+        for (int c = 0; c < Position.BOARD_SIZE; c++)
+            g.drawString(String.valueOf((char) ('a' + c)), c * tile + 4, size - 4);
+        for (int r = 0; r < Position.BOARD_SIZE; r++)
+            g.drawString(String.valueOf(Position.BOARD_SIZE - r), 2, r * tile + g.getFontMetrics().getAscent() + 2);
+        g.dispose();
+
+        target = image(gc, tile, tile, Transparency.TRANSLUCENT);
+        g = (Graphics2D) target.getGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(TARGET);
+        int pad = tile / 4;
+        g.fillOval(pad, pad, tile - pad * 2, tile - pad * 2);
+        g.dispose();
+
+        // Peças em Unicode com sombra, centralizadas na casa
+        Font font = new Font("SansSerif", Font.PLAIN, (int) (tile * 0.75));
+        for (int code = 0; code < pieces.length; code++) {
+            Piece piece = Piece.of(code);
+            pieces[code] = image(gc, tile, tile, Transparency.TRANSLUCENT);
+            g = (Graphics2D) pieces[code].getGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(font);
+            FontMetrics fm = g.getFontMetrics();
+            String s = piece.unicode();
+            int x = (tile - fm.stringWidth(s)) / 2;
+            int y = (tile + fm.getAscent()) / 2 - tile * 6 / 80;
+            boolean white = piece.color == PieceColor.WHITE;
+            g.setColor(white ? WHITE_SHADOW : BLACK_SHADOW);
+            g.drawString(s, x + 2, y + 2);
+            g.setColor(white ? WHITE_PIECE : BLACK_PIECE);
+            g.drawString(s, x, y);
+            g.dispose();
+        }
+    }
+
+    // Imagem no formato da tela (cópia direta, sem conversão); sem tela, ARGB comum
+    private static java.awt.image.BufferedImage image(GraphicsConfiguration gc, int w, int h, int transparency) {
+        if (gc != null) return gc.createCompatibleImage(w, h, transparency);
+        return new java.awt.image.BufferedImage(w, h, transparency == Transparency.OPAQUE
+                ? java.awt.image.BufferedImage.TYPE_INT_RGB : java.awt.image.BufferedImage.TYPE_INT_ARGB);
     }
 }
@@ -0,0 +1,74 @@
+// Placar de um confronto entre duas configurações da IA, do ponto de vista da primeira (A):
+// diferença de Elo com intervalo de confiança de 95% e SPRT (teste sequencial da razão de
+// verossimilhança) entre as hipóteses "A é elo0 mais forte" e "A é elo1 mais forte".
+final class MatchStats {
+    private int wins, draws, losses;
+
+    // Resultado de uma partida para A: 1, 0.5 ou 0
+    synchronized void add(double score) {
+        if (score > 0.5) wins++;
+        else if (score < 0.5) losses++;
+        else draws++;
+    }
+
+    synchronized int games() {
+        return wins + draws + losses;
+    }
+
+    synchronized double score() {
+        int n = games();
+        return n == 0 ? 0.5 : (wins + draws * 0.5) / n;
+    }
+
+    synchronized double elo() {
+        return elo(score());
+    }
+
+    // Meia-largura do intervalo de 95% da diferença de Elo
+    synchronized double eloError() {
+        int n = games();
+        if (n < 2) return Double.POSITIVE_INFINITY;
+        double margin = 1.96 * Math.sqrt(variance() / n);
+        double s = score();
+        return (elo(s + margin) - elo(s - margin)) / 2;
+    }
+
+    // Log da razão de verossimilhança (aproximação normal do modelo de três resultados)
+    synchronized double llr(double elo0, double elo1) {
+        int n = games();
+        double var = variance();
+        if (n == 0 || var == 0) return 0;
+        double s0 = expectedScore(elo0), s1 = expectedScore(elo1);
+        return (s1 - s0) * (2 * score() - s0 - s1) * n / (2 * var);
+    }
+
+    // Limites do SPRT: abaixo de lowerBound aceita elo0, acima de upperBound aceita elo1
+    static double lowerBound(double alpha, double beta) {
+        return Math.log(beta / (1 - alpha));
+    }
+
+    static double upperBound(double alpha, double beta) {
+        return Math.log((1 - beta) / alpha);
+    }
+
+    synchronized String summary() {
+        return String.format("+%d =%d -%d  placar %.1f%%  Elo %+.1f ± %.1f",
+                wins, draws, losses, score() * 100, elo(), eloError());
+    }
+
+    // Variância do resultado de uma partida
+    private double variance() {
+        int n = games();
+        double s = score();
+        return (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s) / n;
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double elo(double score) {
+        double s = Math.max(1e-6, Math.min(1 - 1e-6, score)); // 100% ou 0% dariam infinito
+        return -400 * Math.log10(1 / s - 1);
+    }
+}
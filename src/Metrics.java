@@ -0,0 +1,33 @@
+// Destino das métricas da IA: contadores que só somam (nós, acertos na tabela...) e valores
+// instantâneos (profundidade da última busca...). A busca informa uma vez por busca, não por nó,
+// então qualquer implementação serve. Padrão: NONE, que descarta tudo; MetricsRegistry guarda
+// e exporta para arquivo.
+interface Metrics {
+    Metrics NONE = new Metrics() {
+        @Override
+        public void add(String name, long delta) {}
+
+        @Override
+        public void set(String name, double value) {}
+    };
+
+    void add(String name, long delta);
+
+    void set(String name, double value);
+
+    // Mesmo destino, com um prefixo nos nomes (ex.: uma configuração do torneio)
+    default Metrics withPrefix(String prefix) {
+        Metrics target = this;
+        return new Metrics() {
+            @Override
+            public void add(String name, long delta) {
+                target.add(prefix + name, delta);
+            }
+
+            @Override
+            public void set(String name, double value) {
+                target.set(prefix + name, value);
+            }
+        };
+    }
+}
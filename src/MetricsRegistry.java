@@ -0,0 +1,55 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;                            // Nomes em ordem na exportação
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;        // Soma sem disputa entre threads
+
+// Registro de métricas em memória, seguro entre threads. Pode ser lido a qualquer momento
+// (snapshot) ou gravado num arquivo texto, uma métrica por linha ("nome valor"), para
+// execuções sem interface (torneios, análises em lote).
+final class MetricsRegistry implements Metrics {
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Double> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(String name, long delta) {
+        counters.computeIfAbsent(name, n -> new LongAdder()).add(delta);
+    }
+
+    @Override
+    public void set(String name, double value) {
+        gauges.put(name, value);
+    }
+
+    long counter(String name) {
+        LongAdder adder = counters.get(name);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    // Todas as métricas, em ordem de nome
+    Map<String, Number> snapshot() {
+        Map<String, Number> all = new TreeMap<>();
+        counters.forEach((name, adder) -> all.put(name, adder.sum()));
+        all.putAll(gauges);
+        return all;
+    }
+
+    // Grava num arquivo temporário e troca: quem lê o arquivo nunca o vê pela metade
+    void writeTo(Path path) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Number> e : snapshot().entrySet())
+            sb.append(e.getKey()).append(' ').append(e.getValue()).append('\n');
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, sb.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
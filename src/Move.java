@@ -1,10 +1,15 @@
 // Move.java
 public class Move {
     public final int fromR, fromC, toR, toC;
+    public final PieceType promotion; // Peça escolhida na promoção; null = rainha ou não é promoção
     public Move(int fr, int fc, int tr, int tc) {
+        this(fr, fc, tr, tc, null);
+    }
+    public Move(int fr, int fc, int tr, int tc, PieceType promotion) {
         this.fromR = fr;
         this.fromC = fc;
         this.toR = tr;
         this.toC = tc;
+        this.promotion = promotion;
     }
 }
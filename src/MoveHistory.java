@@ -0,0 +1,77 @@
+// O que a busca aprendeu sobre lances quietos (sem captura), para tentar primeiro os que
+// costumam dar corte beta:
+//   killers:   os dois últimos lances quietos que deram corte em cada ply; num ply vizinho a
+//              posição é parecida e o mesmo lance tende a refutar de novo;
+//   contra-lance: o lance que refutou da última vez o lance anterior do adversário
+//              (indexado pela peça que ele moveu e a casa de destino);
+//   histórico: pontuação por peça e destino, que sobe com cortes e desce com lances quietos
+//              tentados antes do corte sem sucesso.
+// Cada thread da busca tem o seu, então não há sincronização.
+final class MoveHistory {
+    static final int MAX = 16384; // Limite do histórico; o MovePicker ordena os quietos por ele
+
+    private final int[][] killers;
+    private final int[] counters = new int[12 * 64];
+    private final int[] history = new int[12 * 64];
+
+    MoveHistory(int maxPly) {
+        killers = new int[maxPly + 1][2];
+    }
+
+    int killer(int ply, int i) {
+        return killers[ply][i];
+    }
+
+    // Contra-lance para o último lance feito na posição (NONE se não houver)
+    int counter(Position pos) {
+        if (pos.ply() == 0) return Moves.NONE;
+        int previous = pos.moveAt(pos.ply() - 1);
+        int to = Moves.to(previous);
+        return counters[pos.pieceCodeAt(to) * 64 + to];
+    }
+
+    int score(Position pos, int move) {
+        return history[pos.pieceCodeAt(Moves.from(move)) * 64 + Moves.to(move)];
+    }
+
+    // Corte beta por "best" a "depth" no ply; "tried" são os lances quietos tentados antes dele.
+    // Chamado com a posição ainda antes do lance
+    void cutoff(Position pos, int best, int depth, int ply, MoveList tried) {
+        if (!isQuiet(best)) return; // Capturas já vêm na frente por MVV-LVA
+        int[] k = killers[ply];
+        if (k[0] != best) {
+            k[1] = k[0];
+            k[0] = best;
+        }
+        if (pos.ply() > 0) {
+            int to = Moves.to(pos.moveAt(pos.ply() - 1));
+            counters[pos.pieceCodeAt(to) * 64 + to] = best;
+        }
+        int bonus = Math.min(depth * depth, 400);
+        add(pos, best, bonus);
+        for (int i = 0; i < tried.size(); i++)
+            if (tried.get(i) != best) add(pos, tried.get(i), -bonus);
+    }
+
+    // Ajuste proporcional à distância do limite: o valor nunca passa de ±MAX
+    private void add(Position pos, int move, int bonus) {
+        int i = pos.pieceCodeAt(Moves.from(move)) * 64 + Moves.to(move);
+        history[i] += bonus - history[i] * Math.abs(bonus) / MAX;
+    }
+
+    // Nova busca: killers são da posição anterior; o histórico perde metade do peso
+    void age() {
+        for (int[] k : killers) k[0] = k[1] = Moves.NONE;
+        for (int i = 0; i < history.length; i++) history[i] /= 2;
+    }
+
+    void clear() {
+        for (int[] k : killers) k[0] = k[1] = Moves.NONE;
+        java.util.Arrays.fill(counters, Moves.NONE);
+        java.util.Arrays.fill(history, 0);
+    }
+
+    static boolean isQuiet(int move) {
+        return !Moves.isCapture(move) && Moves.promotion(move) == 0;
+    }
+}
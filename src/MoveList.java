@@ -0,0 +1,34 @@
+// Buffer de lances codificados (veja Moves) reaproveitado entre chamadas.
+// Quem gera lances recebe a lista pronta; a busca mantém uma por ply.
+final class MoveList {
+    static final int CAPACITY = 256; // Nenhuma posição legal tem mais de 218 lances
+
+    final int[] moves = new int[CAPACITY];
+    int size;
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(int move) {
+        moves[size++] = move;
+    }
+
+    int get(int i) {
+        return moves[i];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int move) {
+        for (int i = 0; i < size; i++)
+            if (moves[i] == move) return true;
+        return false;
+    }
+}
@@ -0,0 +1,150 @@
+// Entrega os lances de um nó um a um, na ordem em que é mais provável dar corte beta, e só
+// gera o que for preciso: se o lance da tabela ou uma captura já cortar, os lances quietos
+// nem chegam a ser gerados. Etapas:
+//   1. lance da tabela de transposição (conferido, sem gerar nada);
+//   2. capturas e promoções boas ou iguais (SEE >= 0), das vítimas maiores com os atacantes
+//      menores (MVV-LVA);
+//   3. os dois killers e o contra-lance (MoveHistory), se legais aqui;
+//   4. os demais lances quietos, pelo histórico;
+//   5. as capturas que perdem material (SEE < 0).
+// Na quiescência só a etapa 2: capturas que perdem material nem são tentadas.
+// Cada ply da busca tem o seu: sem alocação durante a busca.
+final class MovePicker {
+    private static final int TT_MOVE = 0, GEN_CAPTURES = 1, GOOD_CAPTURES = 2, KILLER_1 = 3, KILLER_2 = 4,
+            COUNTER = 5, GEN_QUIETS = 6, QUIETS = 7, BAD_CAPTURES = 8, DONE = 9;
+
+    private final MoveList captures = new MoveList();
+    private final MoveList quiets = new MoveList();
+    private final int[] captureScores = new int[MoveList.CAPACITY];
+    private final int[] quietScores = new int[MoveList.CAPACITY];
+    private final MoveHistory history;
+
+    private Position pos;
+    private int stage;
+    private boolean quiescence;
+    private int ttMove, killer1, killer2, counter;
+    private int index, badCount; // Capturas ruins ficam guardadas no começo da lista
+    int generated;               // Lances gerados neste nó
+
+    MovePicker(MoveHistory history) {
+        this.history = history;
+    }
+
+    // Nó da busca principal, no ply dado
+    void init(Position pos, int ttMove, int ply) {
+        this.pos = pos;
+        this.ttMove = ttMove;
+        killer1 = history.killer(ply, 0);
+        killer2 = history.killer(ply, 1);
+        counter = history.counter(pos);
+        quiescence = false;
+        stage = TT_MOVE;
+        generated = 0;
+    }
+
+    // Nó de quiescência: só capturas e promoções que não perdem material
+    void initQuiescence(Position pos) {
+        this.pos = pos;
+        ttMove = killer1 = killer2 = counter = Moves.NONE;
+        quiescence = true;
+        stage = GEN_CAPTURES;
+        generated = 0;
+    }
+
+    // Próximo lance legal, ou Moves.NONE quando acabarem
+    @SuppressWarnings("fallthrough") // Cada estágio cai no seguinte de propósito
+    int next() {
+        switch (stage) {
+            case TT_MOVE:
+                stage = GEN_CAPTURES;
+                if (ttMove != Moves.NONE && pos.isLegalMove(ttMove)) return ttMove;
+                // fall through
+            case GEN_CAPTURES:
+                generated += pos.generateCaptures(captures);
+                for (int i = 0; i < captures.size(); i++) captureScores[i] = mvvLva(captures.get(i));
+                index = badCount = 0;
+                stage = GOOD_CAPTURES;
+                // fall through
+            case GOOD_CAPTURES:
+                while (index < captures.size()) {
+                    int move = pickBest(captures, captureScores, index++);
+                    if (move == ttMove) continue;
+                    if (captureScores[index - 1] < 0 && pos.see(move) < 0) {
+                        captures.moves[badCount++] = move; // Para o fim (ou descartada na quiescência)
+                        continue;
+                    }
+                    return move;
+                }
+                if (quiescence) {
+                    stage = DONE;
+                    return Moves.NONE;
+                }
+                stage = KILLER_1;
+                // fall through
+            case KILLER_1:
+                stage = KILLER_2;
+                if (isNew(killer1) && pos.isLegalMove(killer1)) return killer1;
+                // fall through
+            case KILLER_2:
+                stage = COUNTER;
+                if (isNew(killer2) && killer2 != killer1 && pos.isLegalMove(killer2)) return killer2;
+                // fall through
+            case COUNTER:
+                stage = GEN_QUIETS;
+                if (isNew(counter) && counter != killer1 && counter != killer2 && pos.isLegalMove(counter))
+                    return counter;
+                // fall through
+            case GEN_QUIETS:
+                generated += pos.generateQuiets(quiets);
+                for (int i = 0; i < quiets.size(); i++) quietScores[i] = history.score(pos, quiets.get(i));
+                index = 0;
+                stage = QUIETS;
+                // fall through
+            case QUIETS:
+                while (index < quiets.size()) {
+                    int move = pickBest(quiets, quietScores, index++);
+                    if (move != ttMove && move != killer1 && move != killer2 && move != counter) return move;
+                }
+                index = 0;
+                stage = BAD_CAPTURES;
+                // fall through
+            case BAD_CAPTURES:
+                if (index < badCount) return captures.get(index++);
+                stage = DONE;
+                // fall through
+            default:
+                return Moves.NONE;
+        }
+    }
+
+    // Lance quieto ainda não entregue pela etapa do lance da tabela
+    private boolean isNew(int move) {
+        return move != Moves.NONE && move != ttMove && MoveHistory.isQuiet(move);
+    }
+
+    // Vítima mais valiosa primeiro; entre iguais, o atacante mais barato. Negativo quando o
+    // atacante vale mais que a vítima: só nesse caso a troca pode perder material (SEE)
+    private int mvvLva(int move) {
+        int attacker = pos.pieceCodeAt(Moves.from(move)) % 6;
+        int victim = Moves.isEnPassant(move) ? Position.PAWN : pos.pieceCodeAt(Moves.to(move));
+        int gain = victim == Position.EMPTY ? 0 : Evaluation.VALUES[victim % 6];
+        int promo = Moves.promotion(move);
+        if (promo != 0) gain += Evaluation.VALUES[promo] - Evaluation.VALUES[Position.PAWN];
+        int risk = promo != 0 ? Evaluation.VALUES[promo] : attacker == Position.KING ? 0 : Evaluation.VALUES[attacker];
+        return gain >= risk ? gain * 16 + attacker : gain - risk; // Tipos: PAWN = 5 é o mais barato
+    }
+
+    // Seleção parcial: traz o melhor do resto da lista para a posição "from" e o devolve.
+    // Como um corte costuma vir cedo, ordenar tudo de antemão seria trabalho perdido
+    private static int pickBest(MoveList list, int[] scores, int from) {
+        int best = from;
+        for (int i = from + 1; i < list.size(); i++)
+            if (scores[i] > scores[best]) best = i;
+        int move = list.moves[best], score = scores[best];
+        list.moves[best] = list.moves[from];
+        scores[best] = scores[from];
+        list.moves[from] = move;
+        scores[from] = score;
+        return move;
+    }
+}
@@ -0,0 +1,95 @@
+// Codificação compacta de lances num int, sem alocar objetos:
+// bits 0-5 origem, 6-11 destino, 12-14 peça da promoção (0 = nenhuma), 15+ flags.
+// Os 15 bits de baixo cabem num short, para guardar lances em arquivos e tabelas.
+final class Moves {
+    private Moves() {}
+
+    static final int NONE = 0; // a1→a1 nunca é um lance válido
+
+    static final int FLAG_CAPTURE = 1 << 15;
+    static final int FLAG_DOUBLE_PUSH = 1 << 16; // Peão avança duas casas
+    static final int FLAG_EN_PASSANT = 1 << 17;
+    static final int FLAG_CASTLE = 1 << 18;      // Lance do rei; a torre vai junto
+
+    static int encode(int from, int to) {
+        return from | (to << 6);
+    }
+
+    static int encode(int from, int to, int promotion, int flags) {
+        return from | (to << 6) | (promotion << 12) | flags;
+    }
+
+    static int from(int move) {
+        return move & 63;
+    }
+
+    static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    // Tipo da peça promovida (Position.QUEEN, ROOK, BISHOP ou KNIGHT), 0 se não houver
+    static int promotion(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    static boolean isCapture(int move) {
+        return (move & FLAG_CAPTURE) != 0;
+    }
+
+    static boolean isDoublePush(int move) {
+        return (move & FLAG_DOUBLE_PUSH) != 0;
+    }
+
+    static boolean isEnPassant(int move) {
+        return (move & FLAG_EN_PASSANT) != 0;
+    }
+
+    static boolean isCastle(int move) {
+        return (move & FLAG_CASTLE) != 0;
+    }
+
+    // Parte do lance que cabe em 16 bits (origem, destino e promoção)
+    static short toShort(int move) {
+        return (short) (move & 0x7FFF);
+    }
+
+    // Volta dos 16 bits para o lance completo (com as flags), conferindo contra os lances
+    // legais da posição; NONE se o lance não for legal nela
+    static int fromShort(Position pos, short packed, MoveList list) {
+        pos.generateLegal(list);
+        for (int i = 0; i < list.size(); i++)
+            if (toShort(list.get(i)) == packed) return list.get(i);
+        return NONE;
+    }
+
+    // Converte para o Move usado pela interface (linha/coluna da tela)
+    static Move toMove(int move) {
+        int from = from(move), to = to(move), promo = promotion(move);
+        return new Move(Bitboards.row(from), Bitboards.col(from), Bitboards.row(to), Bitboards.col(to),
+                promo != 0 ? PieceType.values()[promo] : null);
+    }
+
+    // Notação de coordenadas, ex.: "e2e4" ou "e7e8q"
+    static String toString(int move) {
+        if (move == NONE) return "0000";
+        StringBuilder sb = new StringBuilder(5);
+        appendSquare(sb, from(move));
+        appendSquare(sb, to(move));
+        int promo = promotion(move);
+        if (promo != 0) sb.append("?qrbn".charAt(promo));
+        return sb.toString();
+    }
+
+    // Lance legal da posição escrito em notação de coordenadas, ou NONE se não houver
+    static int parse(Position pos, String text) {
+        MoveList list = new MoveList();
+        pos.generateLegal(list);
+        for (int i = 0; i < list.size(); i++)
+            if (toString(list.get(i)).equals(text)) return list.get(i);
+        return NONE;
+    }
+
+    static void appendSquare(StringBuilder sb, int sq) {
+        sb.append((char) ('a' + (sq & 7))).append((char) ('1' + (sq >>> 3)));
+    }
+}
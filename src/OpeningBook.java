@@ -0,0 +1,193 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;                  // Entradas saem ordenadas pela chave na construção
+import java.util.concurrent.ThreadLocalRandom;
+
+// Livro de aberturas: arquivo ordenado de entradas de 16 bytes, no mesmo leiaute do Polyglot
+// (chave 8, lance 2, peso 2, aprendizado 4), mas com as chaves de Zobrist deste programa e os
+// lances em Moves.toShort, em little-endian. O arquivo é mapeado em memória e a posição é
+// achada por busca binária, então uma consulta custa alguns microssegundos e nada é alocado.
+// Entre os lances do livro para a posição, a escolha é aleatória, proporcional ao peso.
+//
+// Uso: java OpeningBook build entrada.pgn livro.bin [--plies 16] [--min 2]
+//        Monta o livro com os primeiros lances das partidas; peso = 2 por vitória e 1 por
+//        empate de quem jogou, e só entram lances vistos em pelo menos --min partidas.
+//      java OpeningBook probe livro.bin [FEN ou lances em coordenadas]
+//        Mostra as entradas da posição.
+final class OpeningBook implements Closeable {
+    static final String DEFAULT_FILE = "book.bin"; // Carregado pela interface, se existir
+    static final int ENTRY_SIZE = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long bytes = channel.size();
+        if (bytes % ENTRY_SIZE != 0 || bytes > Integer.MAX_VALUE)
+            throw new IOException("Livro de aberturas inválido (" + bytes + " bytes)");
+        entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+        entries.order(ByteOrder.LITTLE_ENDIAN);
+        size = (int) (bytes / ENTRY_SIZE);
+    }
+
+    static OpeningBook open(Path path) throws IOException {
+        return new OpeningBook(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    // Número de entradas (pares posição/lance)
+    int size() {
+        return size;
+    }
+
+    // Lance do livro para a posição, sorteado pelo peso entre os que são legais nela;
+    // "legal" deve conter os lances legais da posição. NONE se a posição não está no livro
+    int probe(Position pos, MoveList legal) {
+        int first = find(pos.key());
+        if (first < 0) return Moves.NONE;
+        long total = 0;
+        for (int i = first; i < size && key(i) == pos.key(); i++)
+            if (legalMove(legal, i) != Moves.NONE) total += weight(i);
+        if (total == 0) return Moves.NONE;
+        long pick = ThreadLocalRandom.current().nextLong(total);
+        for (int i = first; i < size && key(i) == pos.key(); i++) {
+            int move = legalMove(legal, i);
+            if (move == Moves.NONE) continue;
+            pick -= weight(i);
+            if (pick < 0) return move;
+        }
+        return Moves.NONE; // Não acontece: a soma dos pesos é "total"
+    }
+
+    // Primeira entrada com a chave, ou -1 (as chaves estão em ordem crescente, com sinal)
+    private int find(long key) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key(mid) < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo < size && key(lo) == key ? lo : -1;
+    }
+
+    private long key(int i) {
+        return entries.getLong(i * ENTRY_SIZE);
+    }
+
+    private short move(int i) {
+        return entries.getShort(i * ENTRY_SIZE + 8);
+    }
+
+    private int weight(int i) {
+        return entries.getShort(i * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+
+    // Lance da entrada i, se for legal (protege de colisões de chave e arquivos de outra versão)
+    private int legalMove(MoveList legal, int i) {
+        short move = move(i);
+        for (int j = 0; j < legal.size(); j++)
+            if (Moves.toShort(legal.get(j)) == move) return legal.get(j);
+        return Moves.NONE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("build")) {
+            int plies = 16, min = 2;
+            for (int i = 3; i + 1 < args.length; i += 2) {
+                switch (args[i]) {
+                    case "--plies": plies = Integer.parseInt(args[i + 1]); break;
+                    case "--min": min = Integer.parseInt(args[i + 1]); break;
+                    default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+                }
+            }
+            build(Paths.get(args[1]), Paths.get(args[2]), plies, min);
+        } else if (args.length >= 2 && args[0].equals("probe")) {
+            Position pos = args.length > 2 ? Tournament.startPosition(args[2]) : Position.initial();
+            try (OpeningBook book = open(Paths.get(args[1]))) {
+                int first = book.find(pos.key());
+                long total = 0;
+                for (int i = first; i >= 0 && i < book.size && book.key(i) == pos.key(); i++) total += book.weight(i);
+                for (int i = first; i >= 0 && i < book.size && book.key(i) == pos.key(); i++)
+                    System.out.printf("%-6s %5d  %5.1f%%%n", Moves.toString(book.move(i)), book.weight(i),
+                            100.0 * book.weight(i) / total);
+                if (first < 0) System.out.println("Posição fora do livro");
+            }
+        } else {
+            System.err.println("Uso: java OpeningBook build entrada.pgn livro.bin [--plies N] [--min N]"
+                    + " | probe livro.bin [posição]");
+        }
+    }
+
+    // Conta, para cada posição dos primeiros lances, quantas vezes cada lance foi jogado e
+    // quanto ele pontuou para quem jogou; grava as entradas ordenadas pela chave
+    static void build(Path pgn, Path out, int plies, int minGames) throws IOException {
+        Map<Long, Map<Short, int[]>> stats = new TreeMap<>(); // chave → lance → {partidas, pontos}
+        long games = 0;
+        try (PgnReader reader = new PgnReader(pgn)) {
+            int[] moves = new int[plies];
+            while (reader.next()) {
+                if (reader.error() != null) continue;
+                int result = PackedPosition.result(reader.result());
+                if (result == PackedPosition.RESULT_UNKNOWN) continue;
+                games++;
+                // Volta a partida inteira e refaz só o começo
+                Position game = reader.position();
+                int n = 0;
+                for (; n < plies && n < game.ply(); n++) moves[n] = game.moveAt(n);
+                while (game.ply() > 0) game.unmakeMove();
+                for (int i = 0; i < n; i++) {
+                    boolean white = game.getTurn() == PieceColor.WHITE;
+                    int points = result == PackedPosition.RESULT_DRAW ? 1
+                            : (result == PackedPosition.RESULT_WHITE_WINS) == white ? 2 : 0;
+                    int[] s = stats.computeIfAbsent(game.key(), k -> new HashMap<>())
+                            .computeIfAbsent(Moves.toShort(moves[i]), m -> new int[2]);
+                    s[0]++;
+                    s[1] += points;
+                    game.makeMove(moves[i]);
+                }
+            }
+        }
+
+        long written = 0;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(PgnReader.BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        Files.deleteIfExists(out);
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (Map.Entry<Long, Map<Short, int[]>> position : stats.entrySet()) {
+                int max = 0;
+                for (int[] s : position.getValue().values()) max = Math.max(max, s[1]);
+                for (Map.Entry<Short, int[]> move : position.getValue().entrySet()) {
+                    int[] s = move.getValue();
+                    if (s[0] < minGames || s[1] == 0) continue; // Raro demais, ou só perdeu
+                    // Pesos cabem em 16 bits: reduz proporcionalmente se preciso
+                    int weight = max <= 0xFFFF ? s[1] : (int) Math.max(1, (long) s[1] * 0xFFFF / max);
+                    if (buffer.remaining() < ENTRY_SIZE) {
+                        buffer.flip();
+                        while (buffer.hasRemaining()) channel.write(buffer);
+                        buffer.clear();
+                    }
+                    buffer.putLong(position.getKey()).putShort(move.getKey()).putShort((short) weight).putInt(0);
+                    written++;
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+        System.err.printf("%d partidas, %d posições, %d entradas gravadas%n", games, stats.size(), written);
+    }
+}
@@ -0,0 +1,100 @@
+import java.nio.ByteBuffer; // As posições são lidas e escritas direto em buffers (heap, diretos ou mapeados)
+
+// Posição empacotada em 32 bytes, para arquivos com centenas de milhões de posições:
+//   0-7    ocupação (bitboard, a1 = bit 0)
+//   8-23   peças das casas ocupadas, em ordem crescente de casa, 4 bits cada (código do Piece)
+//   24     bit 0 = vez das pretas, bits 1-4 = direitos de roque
+//   25     casa de en passant + 1 (0 = nenhuma)
+//   26     relógio de 50 lances (até 255)
+//   27-28  número do lance
+//   29-30  pontuação anotada (centipeões, do ponto de vista das brancas; NO_SCORE = sem)
+//   31     resultado da partida de onde a posição veio (RESULT_*)
+// Números em little-endian, independente da ordem do buffer.
+final class PackedPosition {
+    private PackedPosition() {}
+
+    static final int SIZE = 32;
+    static final short NO_SCORE = Short.MIN_VALUE;
+    static final int RESULT_UNKNOWN = 0, RESULT_WHITE_WINS = 1, RESULT_DRAW = 2, RESULT_BLACK_WINS = 3;
+
+    // Escreve a posição em buf[offset..offset+31]
+    static void pack(Position pos, int score, int result, ByteBuffer buf, int offset) {
+        long occ = pos.occupancy();
+        putLong(buf, offset, occ);
+        long nibbles0 = 0, nibbles1 = 0;
+        int i = 0;
+        for (long b = occ; b != 0; b &= b - 1, i++) {
+            long code = pos.pieceCodeAt(Long.numberOfTrailingZeros(b));
+            if (i < 16) nibbles0 |= code << (4 * i);
+            else nibbles1 |= code << (4 * (i - 16));
+        }
+        putLong(buf, offset + 8, nibbles0);
+        putLong(buf, offset + 16, nibbles1);
+        int flags = (pos.getTurn() == PieceColor.BLACK ? 1 : 0) | (pos.castlingRights() << 1);
+        buf.put(offset + 24, (byte) flags);
+        buf.put(offset + 25, (byte) (pos.enPassantSquare() + 1));
+        buf.put(offset + 26, (byte) Math.min(255, pos.halfmoveClock()));
+        putShort(buf, offset + 27, Math.min(0xFFFF, pos.fullmoveNumber()));
+        putShort(buf, offset + 29, score);
+        buf.put(offset + 31, (byte) result);
+    }
+
+    // Lê a posição de buf[offset..] para dentro de "pos" (que é limpa antes; nada é alocado)
+    static void unpack(ByteBuffer buf, int offset, Position pos) {
+        pos.clear();
+        long occ = getLong(buf, offset);
+        long nibbles0 = getLong(buf, offset + 8), nibbles1 = getLong(buf, offset + 16);
+        int flags = buf.get(offset + 24);
+        // A vez vem antes das peças: a casa de en passant depende dela
+        pos.setTurn((flags & 1) != 0 ? PieceColor.BLACK : PieceColor.WHITE);
+        int i = 0;
+        for (long b = occ; b != 0; b &= b - 1, i++) {
+            int sq = Long.numberOfTrailingZeros(b);
+            int code = (int) ((i < 16 ? nibbles0 >>> (4 * i) : nibbles1 >>> (4 * (i - 16))) & 15);
+            if (code >= 12) throw new IllegalArgumentException("Posição empacotada inválida");
+            pos.setPiece(Bitboards.row(sq), Bitboards.col(sq), Piece.of(code));
+        }
+        pos.setCastlingRights((flags >>> 1) & Position.ALL_CASTLING);
+        pos.setEnPassantSquare((buf.get(offset + 25) & 0xFF) - 1);
+        pos.setHalfmoveClock(buf.get(offset + 26) & 0xFF);
+        pos.setFullmoveNumber(getShort(buf, offset + 27) & 0xFFFF);
+    }
+
+    static int score(ByteBuffer buf, int offset) {
+        return (short) getShort(buf, offset + 29);
+    }
+
+    static int result(ByteBuffer buf, int offset) {
+        return buf.get(offset + 31) & 3;
+    }
+
+    // Resultado no formato do PGN → RESULT_*
+    static int result(String pgnResult) {
+        switch (pgnResult) {
+            case "1-0": return RESULT_WHITE_WINS;
+            case "0-1": return RESULT_BLACK_WINS;
+            case "1/2-1/2": return RESULT_DRAW;
+            default: return RESULT_UNKNOWN;
+        }
+    }
+
+    // Acesso little-endian byte a byte: vale para qualquer buffer, sem mexer na sua ordem
+    static void putLong(ByteBuffer buf, int offset, long v) {
+        for (int i = 0; i < 8; i++) buf.put(offset + i, (byte) (v >>> (8 * i)));
+    }
+
+    static long getLong(ByteBuffer buf, int offset) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) v |= (buf.get(offset + i) & 0xFFL) << (8 * i);
+        return v;
+    }
+
+    static void putShort(ByteBuffer buf, int offset, int v) {
+        buf.put(offset, (byte) v);
+        buf.put(offset + 1, (byte) (v >>> 8));
+    }
+
+    static int getShort(ByteBuffer buf, int offset) {
+        return (buf.get(offset) & 0xFF) | (buf.get(offset + 1) & 0xFF) << 8;
+    }
+}
@@ -0,0 +1,109 @@
+// Perft: conta as folhas da árvore de lances legais até uma profundidade. Comparando com os
+// números conhecidos das posições de referência, confirma que o gerador de lances está certo
+// (roque, en passant, promoções, xeques) e mede sua velocidade em nós por segundo.
+//
+// Uso:
+//   java Perft                      roda a suíte de referência (profundidades rápidas)
+//   java Perft --full               roda a suíte completa (leva alguns minutos)
+//   java Perft <profundidade> [FEN] divide: mostra a contagem de cada lance da raiz
+public class Perft {
+    // FEN e contagens esperadas para as profundidades 1, 2, 3...
+    private static final Object[][] SUITE = {
+            {"Posição inicial", Fen.START,
+                    new long[]{20, 400, 8902, 197281, 4865609, 119060324}},
+            {"Kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[]{48, 2039, 97862, 4085603, 193690690}},
+            {"Posição 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[]{14, 191, 2812, 43238, 674624, 11030083}},
+            {"Posição 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[]{6, 264, 9467, 422333, 15833292}},
+            {"Posição 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[]{44, 1486, 62379, 2103487, 89941194}},
+            {"Posição 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    new long[]{46, 2079, 89890, 3894594, 164075551}},
+    };
+
+    // Na suíte rápida, para na primeira profundidade que passe deste número de nós
+    private static final long QUICK_LIMIT = 1_000_000;
+
+    public static void main(String[] args) {
+        if (args.length > 0 && !args[0].equals("--full")) {
+            int depth = Integer.parseInt(args[0]);
+            String fen = args.length > 1 ? String.join(" ", java.util.Arrays.copyOfRange(args, 1, args.length))
+                    : Fen.START;
+            divide(Fen.parse(fen), depth);
+            return;
+        }
+        boolean full = args.length > 0;
+        if (!runSuite(full)) System.exit(1);
+    }
+
+    // Roda as posições de referência; devolve false se alguma contagem não bater
+    static boolean runSuite(boolean full) {
+        boolean ok = true;
+        long totalNodes = 0, totalNanos = 0;
+        for (Object[] test : SUITE) {
+            String name = (String) test[0];
+            long[] expected = (long[]) test[2];
+            Position pos = Fen.parse((String) test[1]);
+            for (int depth = 1; depth <= expected.length; depth++) {
+                long start = System.nanoTime();
+                long nodes = perft(pos, depth);
+                long nanos = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalNanos += nanos;
+                boolean pass = nodes == expected[depth - 1];
+                ok &= pass;
+                System.out.printf("%-16s d%d %12d %s %s%n", name, depth, nodes,
+                        pass ? "ok  " : "ERRO (esperado " + expected[depth - 1] + ")",
+                        rate(nodes, nanos));
+                if (!full && expected[depth - 1] >= QUICK_LIMIT) break;
+            }
+        }
+        System.out.println((ok ? "Todas as contagens conferem. " : "HÁ CONTAGENS ERRADAS. ")
+                + rate(totalNodes, totalNanos));
+        return ok;
+    }
+
+    static long perft(Position pos, int depth) {
+        MoveList[] lists = new MoveList[Math.max(1, depth)];
+        for (int i = 0; i < lists.length; i++) lists[i] = new MoveList();
+        return perft(pos, depth, lists, 0);
+    }
+
+    // No último nível só conta os lances legais (bulk counting), sem fazê-los
+    private static long perft(Position pos, int depth, MoveList[] lists, int ply) {
+        MoveList list = lists[ply];
+        int n = pos.generateLegal(list);
+        if (depth <= 1) return depth == 1 ? n : 1;
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            pos.makeMove(list.get(i));
+            nodes += perft(pos, depth - 1, lists, ply + 1);
+            pos.unmakeMove();
+        }
+        return nodes;
+    }
+
+    // Contagem separada por lance da raiz, para achar onde um gerador errado diverge
+    static void divide(Position pos, int depth) {
+        MoveList root = new MoveList();
+        pos.generateLegal(root);
+        long total = 0, start = System.nanoTime();
+        for (int i = 0; i < root.size(); i++) {
+            int move = root.get(i);
+            pos.makeMove(move);
+            long nodes = depth > 1 ? perft(pos, depth - 1) : 1;
+            pos.unmakeMove();
+            total += nodes;
+            System.out.println(Moves.toString(move) + ": " + nodes);
+        }
+        System.out.println();
+        System.out.println("Lances: " + root.size() + "  Nós: " + total + "  "
+                + rate(total, System.nanoTime() - start));
+    }
+
+    private static String rate(long nodes, long nanos) {
+        return String.format("(%.1f Mnps)", nodes * 1000.0 / Math.max(1, nanos));
+    }
+}
@@ -0,0 +1,88 @@
+import java.time.LocalDate;             // Data da partida na tag Date
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;         // Mantém as tags na ordem em que foram dadas
+import java.util.Map;
+
+// Exportação de partidas em PGN. Os lances vêm do histórico da própria posição
+// (pilha de desfazer), então qualquer Position jogada lance a lance pode ser salva.
+final class Pgn {
+    private Pgn() {}
+
+    private static final int LINE_WIDTH = 79;
+    private static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+
+    // Tags obrigatórias com valores padrão; as do chamador substituem ou completam estas
+    static Map<String, String> defaultTags() {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "?");
+        tags.put("Site", "?");
+        tags.put("Date", LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
+        tags.put("Round", "?");
+        tags.put("White", "?");
+        tags.put("Black", "?");
+        tags.put("Result", "*");
+        return tags;
+    }
+
+    // Resultado pelas regras: "1-0", "0-1", "1/2-1/2" ou "*" (em andamento)
+    static String result(Position pos) {
+        GameStatus status = pos.status();
+        if (status == GameStatus.CHECKMATE) return pos.getTurn() == PieceColor.WHITE ? "0-1" : "1-0";
+        return status.isDraw() ? "1/2-1/2" : "*";
+    }
+
+    // Partida completa em PGN, do início do histórico da posição até o lance atual
+    static String write(Position game, Map<String, String> tags) {
+        Position pos = game.copy();
+        int[] moves = new int[pos.ply()];
+        for (int i = moves.length - 1; i >= 0; i--) {
+            moves[i] = pos.moveAt(i);
+            pos.unmakeMove();
+        }
+
+        Map<String, String> all = defaultTags();
+        all.putAll(tags);
+        String start = Fen.format(pos);
+        if (!start.equals(Fen.START)) {
+            all.put("SetUp", "1");
+            all.put("FEN", start);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String name : SEVEN_TAG_ROSTER) appendTag(sb, name, all.get(name));
+        for (Map.Entry<String, String> tag : all.entrySet())
+            if (!isSevenTagRoster(tag.getKey())) appendTag(sb, tag.getKey(), tag.getValue());
+        sb.append('\n');
+
+        // Texto dos lances, quebrado em linhas de até 79 caracteres
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < moves.length; i++) {
+            boolean white = pos.getTurn() == PieceColor.WHITE;
+            if (white) appendToken(sb, line, pos.fullmoveNumber() + ".");
+            else if (i == 0) appendToken(sb, line, pos.fullmoveNumber() + "...");
+            appendToken(sb, line, San.toString(pos, moves[i]));
+            pos.makeMove(moves[i]);
+        }
+        appendToken(sb, line, all.get("Result"));
+        return sb.append(line).append("\n\n").toString();
+    }
+
+    private static void appendToken(StringBuilder sb, StringBuilder line, String token) {
+        if (line.length() > 0 && line.length() + 1 + token.length() > LINE_WIDTH) {
+            sb.append(line).append('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0) line.append(' ');
+        line.append(token);
+    }
+
+    private static void appendTag(StringBuilder sb, String name, String value) {
+        sb.append('[').append(name).append(" \"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append("\"]\n");
+    }
+
+    private static boolean isSevenTagRoster(String name) {
+        for (String s : SEVEN_TAG_ROSTER)
+            if (s.equals(name)) return true;
+        return false;
+    }
+}
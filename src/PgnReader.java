@@ -0,0 +1,264 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;               // Buffer de tamanho fixo: a memória não cresce com o arquivo
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Leitor de PGN em fluxo, para bases com milhões de partidas: lê o arquivo por um FileChannel
+// em blocos de tamanho fixo e reproduz cada partida numa Position, uma de cada vez.
+// A memória usada não depende do tamanho do arquivo, só da partida atual. Comentários,
+// variantes e NAGs são pulados; uma partida com lance inválido é marcada e a leitura segue.
+//
+//     try (PgnReader reader = new PgnReader(path)) {
+//         while (reader.next()) { ... reader.tags(), reader.position(), reader.result() ... }
+//     }
+//
+// Uso: java PgnReader arquivo.pgn [--fen]
+//   Sem opções, mostra quantas partidas e posições foram lidas; com --fen, escreve o FEN
+//   de cada posição de cada partida válida (uma por linha), para análise em lote.
+final class PgnReader implements Closeable {
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_TOKEN = 1024; // Tokens maiores são truncados (nenhum lance é tão longo)
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private int pushedBack = -1;
+    private final byte[] token = new byte[MAX_TOKEN];
+    private final MoveList legal = new MoveList();
+
+    // Partida atual
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private Position position;
+    private String result;
+    private String error;
+    private long games, bytes;
+
+    PgnReader(Path path) throws IOException {
+        this(path, BUFFER_SIZE);
+    }
+
+    PgnReader(Path path, int bufferSize) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+        buffer.flip(); // Começa vazio
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: java PgnReader arquivo.pgn [--fen]");
+            return;
+        }
+        boolean fen = args.length > 1 && args[1].equals("--fen");
+        long start = System.nanoTime(), positions = 0, invalid = 0;
+        StringBuilder out = new StringBuilder();
+        try (PgnReader reader = new PgnReader(Paths.get(args[0]))) {
+            while (reader.next()) {
+                if (reader.error() != null) {
+                    invalid++;
+                    continue;
+                }
+                Position pos = reader.position();
+                positions += pos.ply() + 1;
+                if (!fen) continue;
+                // Volta ao início, escrevendo cada posição da partida
+                int[] moves = new int[pos.ply()];
+                for (int i = moves.length - 1; i >= 0; i--) {
+                    moves[i] = pos.moveAt(i);
+                    pos.unmakeMove();
+                }
+                out.setLength(0);
+                out.append(Fen.format(pos)).append('\n');
+                for (int move : moves) {
+                    pos.makeMove(move);
+                    out.append(Fen.format(pos)).append('\n');
+                }
+                System.out.print(out);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("%d partidas (%d inválidas), %d posições em %.1f s (%.1f MB/s)%n",
+                    reader.games(), invalid, positions, seconds, reader.bytesRead() / 1e6 / seconds);
+        }
+    }
+
+    // Lê a próxima partida; devolve false no fim do arquivo
+    boolean next() throws IOException {
+        tags.clear();
+        position = null;
+        result = null;
+        error = null;
+        boolean started = false;
+        int c;
+        while ((c = read()) >= 0) {
+            if (c <= ' ' || c >= 0x80) continue; // Espaços, e bytes fora do ASCII (ex.: BOM) entre tokens
+            switch (c) {
+                case '[':
+                    if (position != null) { // Tags depois de lances: já é a próxima partida
+                        unread(c);
+                        return finish("*");
+                    }
+                    readTag();
+                    started = true;
+                    break;
+                case '{':
+                    skipUntil('}');
+                    break;
+                case ';':
+                case '%':
+                    skipUntil('\n');
+                    break;
+                case '(':
+                    skipVariation();
+                    break;
+                case '$':
+                    readToken(c); // NAG
+                    break;
+                default:
+                    String text = readToken(c);
+                    started = true;
+                    if (text.equals("1-0") || text.equals("0-1") || text.equals("1/2-1/2") || text.equals("*"))
+                        return finish(text);
+                    move(text);
+            }
+        }
+        return started && finish("*");
+    }
+
+    Map<String, String> tags() {
+        return tags;
+    }
+
+    // Posição final da partida atual, com todos os lances no histórico
+    Position position() {
+        return position;
+    }
+
+    String result() {
+        return result;
+    }
+
+    // Motivo de a partida ser inválida (lance ilegal, FEN ruim), ou null
+    String error() {
+        return error;
+    }
+
+    long games() {
+        return games;
+    }
+
+    long bytesRead() {
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean finish(String text) {
+        if (position == null) startMovetext();
+        // O marcador do fim dos lances vale; a tag Result só completa um "*"
+        String tag = tags.get("Result");
+        result = text.equals("*") && tag != null ? tag : text;
+        games++;
+        return true;
+    }
+
+    private void startMovetext() {
+        try {
+            String fen = tags.get("FEN");
+            position = fen != null ? Fen.parse(fen) : Position.initial();
+        } catch (IllegalArgumentException e) {
+            position = Position.initial();
+            error = e.getMessage();
+        }
+    }
+
+    // Um token do texto de lances: número de lance, lance em SAN ou lixo
+    private void move(String text) {
+        if (position == null) startMovetext();
+        if (error != null) return; // Partida já inválida: só procura o fim
+        // Tira o número do lance: "12." ou "12...", às vezes grudado no lance ("12.e4")
+        int i = 0;
+        while (i < text.length() && Character.isDigit(text.charAt(i))) i++;
+        if (i > 0 && i < text.length() && text.charAt(i) != '.') i = 0; // "0-0" não é número
+        while (i < text.length() && text.charAt(i) == '.') i++;
+        if (i > 0) text = text.substring(i);
+        if (text.isEmpty()) return;
+        int move = San.parse(position, text, legal);
+        if (move == Moves.NONE) error = "Lance inválido no lance " + position.fullmoveNumber() + ": " + text;
+        else position.makeMove(move);
+    }
+
+    // [Nome "Valor"], com \" e \\ escapados; o valor é UTF-8
+    private void readTag() throws IOException {
+        int c;
+        int n = 0;
+        while ((c = read()) >= 0 && c != '"' && c != ']') if (c > ' ' && n < MAX_TOKEN) token[n++] = (byte) c;
+        String name = new String(token, 0, n, StandardCharsets.US_ASCII);
+        n = 0;
+        if (c == '"') {
+            while ((c = read()) >= 0 && c != '"') {
+                if (c == '\\') c = read();
+                if (c >= 0 && n < MAX_TOKEN) token[n++] = (byte) c;
+            }
+            skipUntil(']');
+        }
+        tags.put(name, new String(token, 0, n, StandardCharsets.UTF_8));
+    }
+
+    private String readToken(int first) throws IOException {
+        int n = 0;
+        token[n++] = (byte) first;
+        int c;
+        while ((c = read()) > ' ' && "[]{}();".indexOf(c) < 0)
+            if (n < MAX_TOKEN) token[n++] = (byte) c;
+        if (c >= 0) unread(c);
+        return new String(token, 0, n, StandardCharsets.ISO_8859_1);
+    }
+
+    private void skipUntil(int end) throws IOException {
+        int c;
+        while ((c = read()) >= 0 && c != end) {
+            // Nada: só consome
+        }
+    }
+
+    // Variante entre parênteses, possivelmente aninhada e com comentários dentro
+    private void skipVariation() throws IOException {
+        int depth = 1, c;
+        while (depth > 0 && (c = read()) >= 0) {
+            if (c == '(') depth++;
+            else if (c == ')') depth--;
+            else if (c == '{') skipUntil('}');
+            else if (c == ';') skipUntil('\n');
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack >= 0) {
+            int c = pushedBack;
+            pushedBack = -1;
+            return c;
+        }
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int n;
+            do {
+                n = channel.read(buffer);
+            } while (n == 0);
+            buffer.flip();
+            if (n < 0) return -1;
+            bytes += n;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
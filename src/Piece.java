@@ -0,0 +1,46 @@
+// Classe que representa uma peça do tabuleiro
+class Piece {
+    final PieceType type;
+    final PieceColor color;
+    Piece(PieceType type, PieceColor color) {
+        this.type = type;
+        this.color = color;
+    }
+
+    // Instâncias compartilhadas: peças são imutáveis, então basta uma por tipo e cor
+    private static final Piece[] SHARED = new Piece[12];
+    static {
+        for (PieceColor c : PieceColor.values())
+            for (PieceType t : PieceType.values())
+                SHARED[index(t, c)] = new Piece(t, c);
+    }
+
+    static Piece of(PieceType type, PieceColor color) {
+        return SHARED[index(type, color)];
+    }
+
+    static Piece of(int index) {
+        return SHARED[index];
+    }
+
+    // Índice 0..11 usado pelos bitboards do Position
+    static int index(PieceType type, PieceColor color) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    int index() {
+        return index(type, color);
+    }
+    // Utiliza Unicode para renderizar as peças gráficas
+    String unicode() {
+        switch (type) {
+            case KING:   return color == PieceColor.WHITE ? "♔" : "♚";
+            case QUEEN:  return color == PieceColor.WHITE ? "♕" : "♛";
+            case ROOK:   return color == PieceColor.WHITE ? "♖" : "♜";
+            case BISHOP: return color == PieceColor.WHITE ? "♗" : "♝";
+            case KNIGHT: return color == PieceColor.WHITE ? "♘" : "♞";
+            case PAWN:   return color == PieceColor.WHITE ? "♙" : "♟";
+        }
+        return "?";
+    }
+}
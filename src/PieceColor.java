@@ -0,0 +1,5 @@
+// Cores das peças
+enum PieceColor {
+    WHITE, BLACK;
+    public PieceColor opposite() { return this == WHITE ? BLACK : WHITE; }
+}
@@ -0,0 +1,2 @@
+// Tipos de peças do xadrez
+enum PieceType { KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN }
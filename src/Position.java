@@ -0,0 +1,883 @@
+import java.util.ArrayList; // Implementação concreta de listas (ArrayList)
+import java.util.List;      // Interface de listas genéricas
+
+// Posição de xadrez e regras do jogo, sem nenhuma dependência de AWT/Swing.
+// Pode ser criada e analisada em servidores headless, várias ao mesmo tempo.
+// O tabuleiro é guardado em bitboards: um long por tipo e cor de peça (veja Bitboards).
+public class Position {
+    static final int BOARD_SIZE = 8; // Número de linhas e colunas do tabuleiro
+
+    // Índices dos tipos de peça (mesma ordem de PieceType)
+    static final int KING = 0, QUEEN = 1, ROOK = 2, BISHOP = 3, KNIGHT = 4, PAWN = 5;
+    static final int WHITE = 0, BLACK = 1;
+    static final byte EMPTY = -1;
+
+    // Direitos de roque (bits): pequeno/grande das brancas e das pretas
+    static final int WHITE_KINGSIDE = 1, WHITE_QUEENSIDE = 2, BLACK_KINGSIDE = 4, BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING = 15;
+
+    // Direitos que continuam valendo depois que uma peça sai de (ou chega em) cada casa
+    private static final int[] CASTLING_MASK = new int[64];
+    static {
+        java.util.Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;  // a1
+        CASTLING_MASK[7] &= ~WHITE_KINGSIDE;   // h1
+        CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);  // e1
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE; // a8
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;  // h8
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE); // e8
+    }
+
+    // Bitboards por peça (cor * 6 + tipo), ocupação por cor e peça em cada casa
+    private final long[] pieces = new long[12];
+    private final long[] colors = new long[2];
+    private final byte[] mailbox = new byte[64];
+    private final int[] kingSquare = {-1, -1}; // Casas dos reis, mantidas a cada lance
+    private PieceColor turn = PieceColor.WHITE;
+    private long key; // Chave de Zobrist, atualizada junto com as peças
+    private int castling;          // Direitos de roque (bits acima)
+    private int epSquare = -1;     // Casa de en passant, só quando a captura é possível
+    private int halfmoveClock;     // Lances desde a última captura ou lance de peão
+    private int fullmoveNumber = 1;
+    private int psqt;              // Material + casas, do ponto de vista das brancas (Evaluation)
+    private Nnue.Accumulator accumulator; // Camada de entrada da rede, se houver uma
+
+    // Pilha de desfazer: por lance, o lance (32 bits de baixo) e o estado anterior
+    // (peça capturada, roque, en passant e relógio de 50 lances, 32 bits de cima)
+    private long[] undo = new long[256];
+    private int ply = 0;
+
+    // Chave da posição antes de cada lance da pilha, para detectar repetições sem comparar
+    // tabuleiros. O filtro conta quantas chaves do histórico caem em cada balde: com o balde
+    // da chave atual zerado não há repetição possível e o histórico nem é consultado
+    private static final int REPETITION_FILTER_MASK = 1023;
+    private long[] history = new long[256];
+    private final short[] repetitionFilter = new short[REPETITION_FILTER_MASK + 1];
+
+    // Informações derivadas da posição atual, calculadas na primeira consulta e guardadas com a
+    // chave em que valem: enquanto a chave não muda (peças, vez, roque e en passant são os
+    // mesmos), xeque, mate, afogamento e lances legais saem daqui sem recalcular.
+    // Não são copiadas por copy(): a cópia recalcula quando precisar
+    private long checksKey, attacksKey, legalKey;
+    private boolean checksValid, attacksValid, legalValid;
+    private long cachedCheckers, cachedPinned;    // Do jogador da vez
+    private final long[] attacked = new long[2];  // Casas atacadas por cada cor
+    private final MoveList legal = new MoveList();
+
+    // Cria um tabuleiro vazio (use initial() para a posição inicial)
+    public Position() {
+        java.util.Arrays.fill(mailbox, EMPTY);
+    }
+
+    // Volta ao tabuleiro vazio, sem histórico. Permite reaproveitar a mesma instância ao ler
+    // milhões de posições de um arquivo, sem criar objetos
+    void clear() {
+        java.util.Arrays.fill(pieces, 0L);
+        colors[WHITE] = colors[BLACK] = 0L;
+        java.util.Arrays.fill(mailbox, EMPTY);
+        kingSquare[WHITE] = kingSquare[BLACK] = -1;
+        turn = PieceColor.WHITE;
+        key = 0L;
+        castling = 0;
+        epSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        psqt = 0;
+        if (accumulator != null) accumulator.reset();
+        if (ply > 0) java.util.Arrays.fill(repetitionFilter, (short) 0);
+        ply = 0;
+    }
+
+    // Posição inicial padrão do xadrez
+    public static Position initial() {
+        Position pos = new Position();
+        PieceType[] backRank = {PieceType.ROOK, PieceType.KNIGHT, PieceType.BISHOP, PieceType.QUEEN,
+                PieceType.KING, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK};
+        for (int c = 0; c < BOARD_SIZE; c++) {
+            // Peças pretas na linha superior, brancas na base
+            pos.setPiece(0, c, Piece.of(backRank[c], PieceColor.BLACK));
+            pos.setPiece(1, c, Piece.of(PieceType.PAWN, PieceColor.BLACK));
+            pos.setPiece(6, c, Piece.of(PieceType.PAWN, PieceColor.WHITE));
+            pos.setPiece(7, c, Piece.of(backRank[c], PieceColor.WHITE));
+        }
+        pos.setCastlingRights(ALL_CASTLING);
+        return pos;
+    }
+
+    // Cópia independente da posição, com o histórico (repetições e lances a desfazer)
+    public Position copy() {
+        Position p = new Position();
+        System.arraycopy(pieces, 0, p.pieces, 0, pieces.length);
+        System.arraycopy(colors, 0, p.colors, 0, colors.length);
+        System.arraycopy(mailbox, 0, p.mailbox, 0, mailbox.length);
+        p.kingSquare[WHITE] = kingSquare[WHITE];
+        p.kingSquare[BLACK] = kingSquare[BLACK];
+        p.turn = turn;
+        p.key = key;
+        p.castling = castling;
+        p.epSquare = epSquare;
+        p.halfmoveClock = halfmoveClock;
+        p.fullmoveNumber = fullmoveNumber;
+        p.psqt = psqt;
+        p.accumulator = accumulator != null ? accumulator.copy() : null;
+        p.undo = undo.clone();
+        p.history = history.clone();
+        p.ply = ply;
+        System.arraycopy(repetitionFilter, 0, p.repetitionFilter, 0, repetitionFilter.length);
+        return p;
+    }
+
+    public Piece pieceAt(int r, int c) {
+        int code = mailbox[Bitboards.square(r, c)];
+        return code == EMPTY ? null : Piece.of(code);
+    }
+
+    // Coloca (ou remove, com null) uma peça numa casa
+    public void setPiece(int r, int c, Piece piece) {
+        int sq = Bitboards.square(r, c);
+        if (mailbox[sq] != EMPTY) removePiece(sq);
+        if (piece != null) addPiece(sq, piece.index());
+    }
+
+    public PieceColor getTurn() {
+        return turn; // WHITE (Brancas) ou BLACK (Pretas)
+    }
+
+    public void setTurn(PieceColor turn) {
+        if (this.turn != turn) key ^= Zobrist.BLACK_TO_MOVE;
+        this.turn = turn;
+    }
+
+    int castlingRights() {
+        return castling;
+    }
+
+    void setCastlingRights(int rights) {
+        key ^= Zobrist.CASTLING[castling] ^ Zobrist.CASTLING[rights & ALL_CASTLING];
+        castling = rights & ALL_CASTLING;
+    }
+
+    // Casa de en passant (a1 = 0) ou -1
+    int enPassantSquare() {
+        return epSquare;
+    }
+
+    // Define a casa de en passant; só é guardada se algum peão da vez puder capturar nela,
+    // para que posições iguais tenham sempre a mesma chave
+    void setEnPassantSquare(int sq) {
+        if (epSquare >= 0) key ^= Zobrist.EN_PASSANT_FILE[epSquare & 7];
+        epSquare = -1;
+        if (sq >= 0 && (Bitboards.PAWN_ATTACKS[turn.ordinal() ^ 1][sq]
+                & pieces[turn.ordinal() * 6 + PAWN]) != 0) {
+            epSquare = sq;
+            key ^= Zobrist.EN_PASSANT_FILE[sq & 7];
+        }
+    }
+
+    int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    void setHalfmoveClock(int clock) {
+        halfmoveClock = clock;
+    }
+
+    int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    void setFullmoveNumber(int number) {
+        fullmoveNumber = Math.max(1, number);
+    }
+
+    // Lances feitos desde a criação da posição (tamanho da pilha de desfazer)
+    int ply() {
+        return ply;
+    }
+
+    // i-ésimo lance da pilha, codificado (0 = o mais antigo)
+    int moveAt(int i) {
+        return (int) undo[i];
+    }
+
+    // Material + tabelas de casas, do ponto de vista das brancas; mantido a cada lance
+    int psqt() {
+        return psqt;
+    }
+
+    // Passa a manter a camada de entrada da rede a cada lance (null = deixa de manter)
+    void setNetwork(Nnue network) {
+        if (network == null) {
+            accumulator = null;
+            return;
+        }
+        accumulator = network.new Accumulator();
+        for (int sq = 0; sq < 64; sq++)
+            if (mailbox[sq] != EMPTY) accumulator.add(mailbox[sq], sq);
+    }
+
+    Nnue.Accumulator accumulator() {
+        return accumulator;
+    }
+
+    // Chave de Zobrist da posição (identifica transposições)
+    long key() {
+        return key;
+    }
+
+    // Recalcula a chave do zero; serve para conferir a versão incremental
+    long computeKey() {
+        long k = turn == PieceColor.BLACK ? Zobrist.BLACK_TO_MOVE : 0L;
+        for (int sq = 0; sq < 64; sq++)
+            if (mailbox[sq] != EMPTY) k ^= Zobrist.PIECE_SQUARE[mailbox[sq]][sq];
+        k ^= Zobrist.CASTLING[castling];
+        if (epSquare >= 0) k ^= Zobrist.EN_PASSANT_FILE[epSquare & 7];
+        return k;
+    }
+
+    // Índice do Piece na casa (a1 = 0), ou EMPTY
+    int pieceCodeAt(int sq) {
+        return mailbox[sq];
+    }
+
+    // O jogador da vez está em xeque?
+    boolean inCheck() {
+        return checkers() != 0;
+    }
+
+    // Peças adversárias dando xeque no jogador da vez (do cache)
+    long checkers() {
+        refreshChecks();
+        return cachedCheckers;
+    }
+
+    // Peças do jogador da vez cravadas contra o próprio rei (do cache)
+    long pinned() {
+        refreshChecks();
+        return cachedPinned;
+    }
+
+    private void refreshChecks() {
+        if (checksValid && checksKey == key) return;
+        int us = turn.ordinal();
+        cachedCheckers = checkers(us);
+        cachedPinned = pinned(us);
+        checksKey = key;
+        checksValid = true;
+    }
+
+    // Todas as casas atacadas pela cor (com a ocupação atual), do cache
+    long attacks(int color) {
+        if (!attacksValid || attacksKey != key) {
+            attacked[WHITE] = computeAttacks(WHITE);
+            attacked[BLACK] = computeAttacks(BLACK);
+            attacksKey = key;
+            attacksValid = true;
+        }
+        return attacked[color];
+    }
+
+    private long computeAttacks(int color) {
+        long occ = occupancy();
+        long pawns = pieces[color * 6 + PAWN];
+        long result = color == WHITE
+                ? ((pawns & ~Bitboards.FILE_A) << 7) | ((pawns & ~Bitboards.FILE_H) << 9)
+                : ((pawns & ~Bitboards.FILE_H) >>> 7) | ((pawns & ~Bitboards.FILE_A) >>> 9);
+        long others = colors[color] & ~pawns;
+        while (others != 0) {
+            int sq = Long.numberOfTrailingZeros(others);
+            others &= others - 1;
+            result |= attacksFrom(sq, mailbox[sq], occ);
+        }
+        return result;
+    }
+
+    // Lances legais do jogador da vez (do cache; não alterar a lista)
+    MoveList legal() {
+        if (legalValid && legalKey == key) return legal;
+        legal.clear();
+        int us = turn.ordinal();
+        long checkers = checkers(), pinned = pinned();
+        long own = colors[us];
+        while (own != 0) {
+            int sq = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            addLegalMoves(sq, checkers, pinned, -1L, legal);
+        }
+        legalKey = key;
+        legalValid = true;
+        return legal;
+    }
+
+    // Bitboard de um tipo de peça de uma cor
+    long pieces(int color, int type) {
+        return pieces[color * 6 + type];
+    }
+
+    long occupancy(int color) {
+        return colors[color];
+    }
+
+    long occupancy() {
+        return colors[WHITE] | colors[BLACK];
+    }
+
+    private void addPiece(int sq, int code) {
+        long b = Bitboards.bit(sq);
+        pieces[code] |= b;
+        colors[code / 6] |= b;
+        mailbox[sq] = (byte) code;
+        key ^= Zobrist.PIECE_SQUARE[code][sq];
+        psqt += Evaluation.PSQT[code][sq];
+        if (accumulator != null) accumulator.add(code, sq);
+        if (code % 6 == KING) kingSquare[code / 6] = sq;
+    }
+
+    private void removePiece(int sq) {
+        int code = mailbox[sq];
+        long b = Bitboards.bit(sq);
+        pieces[code] &= ~b;
+        colors[code / 6] &= ~b;
+        mailbox[sq] = EMPTY;
+        key ^= Zobrist.PIECE_SQUARE[code][sq];
+        psqt -= Evaluation.PSQT[code][sq];
+        if (accumulator != null) accumulator.remove(code, sq);
+        if (code % 6 == KING) kingSquare[code / 6] = -1;
+    }
+
+    // Executa um movimento (já validado) e passa a vez; pode ser desfeito com unmakeMove()
+    public void makeMove(Move m) {
+        int move = encode(m);
+        if (move == Moves.NONE) throw new IllegalArgumentException("Lance ilegal");
+        makeMove(move);
+    }
+
+    // Codifica um Move da interface como o lance legal correspondente (roque, en passant,
+    // promoção); devolve Moves.NONE se não for legal
+    int encode(Move m) {
+        int from = Bitboards.square(m.fromR, m.fromC), to = Bitboards.square(m.toR, m.toC);
+        // Sem escolha explícita, a promoção é para rainha
+        int promo = m.promotion != null ? m.promotion.ordinal() : QUEEN;
+        MoveList list = new MoveList();
+        generateLegalFrom(from, list);
+        for (int i = 0; i < list.size(); i++) {
+            int move = list.get(i);
+            if (Moves.to(move) == to && (Moves.promotion(move) == 0 || Moves.promotion(move) == promo))
+                return move;
+        }
+        return Moves.NONE;
+    }
+
+    void makeMove(int move) {
+        int from = Moves.from(move), to = Moves.to(move);
+        int code = mailbox[from];
+        int us = code / 6;
+        int captured = Moves.isEnPassant(move) ? EMPTY : mailbox[to];
+        if (ply == undo.length) {
+            undo = java.util.Arrays.copyOf(undo, ply * 2);
+            history = java.util.Arrays.copyOf(history, ply * 2);
+        }
+        history[ply] = key;
+        repetitionFilter[(int) key & REPETITION_FILTER_MASK]++;
+        long state = (captured + 1) | (castling << 4) | ((epSquare + 1) << 8) | (halfmoveClock << 16);
+        undo[ply++] = (move & 0xFFFFFFFFL) | (state << 32);
+
+        if (epSquare >= 0) key ^= Zobrist.EN_PASSANT_FILE[epSquare & 7];
+        epSquare = -1;
+
+        if (Moves.isEnPassant(move)) removePiece(us == WHITE ? to - 8 : to + 8);
+        else if (captured != EMPTY) removePiece(to);
+        removePiece(from);
+        int promo = Moves.promotion(move);
+        addPiece(to, promo != 0 ? code - PAWN + promo : code);
+
+        // Roque: a torre pula para o outro lado do rei
+        if (Moves.isCastle(move)) {
+            int base = us == WHITE ? 0 : 56;
+            boolean kingside = to == base + 6;
+            int rookFrom = kingside ? base + 7 : base, rookTo = kingside ? base + 5 : base + 3;
+            int rook = mailbox[rookFrom];
+            removePiece(rookFrom);
+            addPiece(rookTo, rook);
+        }
+
+        int rights = castling & CASTLING_MASK[from] & CASTLING_MASK[to];
+        key ^= Zobrist.CASTLING[castling] ^ Zobrist.CASTLING[rights];
+        castling = rights;
+
+        halfmoveClock = (code % 6 == PAWN || captured != EMPTY) ? 0 : halfmoveClock + 1;
+        if (us == BLACK) fullmoveNumber++;
+        turn = turn.opposite();
+        key ^= Zobrist.BLACK_TO_MOVE;
+
+        // En passant só fica registrado se um peão adversário puder mesmo capturar
+        if (Moves.isDoublePush(move)) setEnPassantSquare((from + to) >>> 1);
+    }
+
+    // Desfaz o último lance feito com makeMove
+    public void unmakeMove() {
+        long entry = undo[--ply];
+        repetitionFilter[(int) history[ply] & REPETITION_FILTER_MASK]--;
+        int move = (int) entry;
+        int state = (int) (entry >>> 32);
+        int from = Moves.from(move), to = Moves.to(move);
+
+        turn = turn.opposite();
+        key ^= Zobrist.BLACK_TO_MOVE;
+        int us = turn.ordinal();
+        if (us == BLACK) fullmoveNumber--;
+
+        int code = mailbox[to];
+        removePiece(to);
+        addPiece(from, Moves.promotion(move) != 0 ? us * 6 + PAWN : code);
+        if (Moves.isCastle(move)) {
+            int base = us == WHITE ? 0 : 56;
+            boolean kingside = to == base + 6;
+            int rookFrom = kingside ? base + 7 : base, rookTo = kingside ? base + 5 : base + 3;
+            int rook = mailbox[rookTo];
+            removePiece(rookTo);
+            addPiece(rookFrom, rook);
+        }
+        int captured = (state & 15) - 1;
+        if (Moves.isEnPassant(move))
+            addPiece(us == WHITE ? to - 8 : to + 8, (us ^ 1) * 6 + PAWN);
+        else if (captured != EMPTY)
+            addPiece(to, captured);
+
+        if (epSquare >= 0) key ^= Zobrist.EN_PASSANT_FILE[epSquare & 7];
+        epSquare = ((state >>> 8) & 127) - 1;
+        if (epSquare >= 0) key ^= Zobrist.EN_PASSANT_FILE[epSquare & 7];
+        int rights = (state >>> 4) & 15;
+        key ^= Zobrist.CASTLING[castling] ^ Zobrist.CASTLING[rights];
+        castling = rights;
+        halfmoveClock = state >>> 16;
+    }
+
+    // Todos os movimentos legais do jogador da vez
+    public List<Move> legalMoves() {
+        MoveList list = new MoveList();
+        generateLegal(list);
+        return toMoveList(list);
+    }
+
+    // Movimentos legais da peça em (r,c)
+    public List<Move> legalMovesFrom(int r, int c) {
+        MoveList list = new MoveList();
+        generateLegalFrom(Bitboards.square(r, c), list);
+        return toMoveList(list);
+    }
+
+    private static List<Move> toMoveList(MoveList list) {
+        List<Move> moves = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) moves.add(Moves.toMove(list.get(i)));
+        return moves;
+    }
+
+    // Preenche "list" (buffer do chamador) com os lances legais do jogador da vez; sem alocação
+    int generateLegal(MoveList list) {
+        MoveList moves = legal();
+        System.arraycopy(moves.moves, 0, list.moves, 0, moves.size);
+        list.size = moves.size;
+        return list.size;
+    }
+
+    // Só capturas e promoções legais (usado pela busca de quiescência)
+    int generateCaptures(MoveList list) {
+        list.clear();
+        int us = turn.ordinal();
+        long checkers = checkers(), pinned = pinned();
+        long mask = colors[us ^ 1] | Bitboards.RANK_1 | Bitboards.RANK_8;
+        long own = colors[us];
+        while (own != 0) {
+            int sq = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            long targets = mask;
+            if (mailbox[sq] % 6 != PAWN) targets = colors[us ^ 1];
+            else if (epSquare >= 0) targets |= Bitboards.bit(epSquare);
+            addLegalMoves(sq, checkers, pinned, targets, list);
+        }
+        return list.size();
+    }
+
+    // O complemento de generateCaptures: lances legais que não capturam nem promovem (com os
+    // roques). A busca gera as capturas primeiro e só gera estes se nenhuma der corte
+    int generateQuiets(MoveList list) {
+        list.clear();
+        int us = turn.ordinal();
+        long checkers = checkers(), pinned = pinned();
+        long mask = ~(colors[us ^ 1] | Bitboards.RANK_1 | Bitboards.RANK_8);
+        if (epSquare >= 0) mask &= ~Bitboards.bit(epSquare);
+        long own = colors[us];
+        while (own != 0) {
+            int sq = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            addLegalMoves(sq, checkers, pinned, mailbox[sq] % 6 != PAWN ? ~colors[us ^ 1] : mask, list);
+        }
+        return list.size();
+    }
+
+    // Confere um lance vindo de fora da geração (tabela de transposição, killers...): legal
+    // nesta posição e com as mesmas flags que a geração daria. Mais barato que gerar tudo
+    boolean isLegalMove(int move) {
+        int from = Moves.from(move), to = Moves.to(move);
+        int code = mailbox[from];
+        int us = turn.ordinal();
+        if (move == Moves.NONE || code == EMPTY || code / 6 != us) return false;
+        long checkers = checkers();
+        if (Moves.isCastle(move)) {
+            int base = us == WHITE ? 0 : 56;
+            return code % 6 == KING && checkers == 0 && move == Moves.encode(from, to, 0, Moves.FLAG_CASTLE)
+                    && (to == base + 6 ? canCastle(us, from, true) : to == base + 2 && canCastle(us, from, false));
+        }
+        if ((pseudoTargets(from) & Bitboards.bit(to)) == 0) return false;
+        int promo = Moves.promotion(move);
+        boolean promoting = code % 6 == PAWN && (to >>> 3 == 7 || to >>> 3 == 0);
+        if (promoting ? promo < QUEEN || promo > KNIGHT : promo != 0) return false;
+        return move == (pseudoMove(code, from, to) | (promo << 12)) && isLegal(move, checkers, pinned());
+    }
+
+    // Troca estática (SEE): saldo material do lance se as duas cores continuarem capturando na
+    // casa de destino, sempre com a peça de menor valor, e cada uma podendo parar quando quiser.
+    // Ignora cravadas; para ordenar capturas basta
+    int see(int move) {
+        if (Moves.isCastle(move)) return 0;
+        int from = Moves.from(move), to = Moves.to(move);
+        int side = mailbox[from] / 6;
+        long occ = occupancy() ^ Bitboards.bit(from);
+        int captured = mailbox[to];
+        if (Moves.isEnPassant(move)) {
+            int capturedSq = side == WHITE ? to - 8 : to + 8;
+            occ ^= Bitboards.bit(capturedSq);
+            captured = PAWN;
+        }
+        int[] gain = seeGain;
+        gain[0] = captured == EMPTY ? 0 : SEE_VALUES[captured % 6];
+        int attacker = mailbox[from] % 6;
+        int promo = Moves.promotion(move);
+        if (promo != 0) {
+            gain[0] += SEE_VALUES[promo] - SEE_VALUES[PAWN];
+            attacker = promo;
+        }
+        long diagonal = pieces[BISHOP] | pieces[6 + BISHOP] | pieces[QUEEN] | pieces[6 + QUEEN];
+        long straight = pieces[ROOK] | pieces[6 + ROOK] | pieces[QUEEN] | pieces[6 + QUEEN];
+        long attackers = attackersTo(to, occ) & occ;
+        int d = 0;
+        long fromSet;
+        do {
+            d++;
+            gain[d] = SEE_VALUES[attacker] - gain[d - 1]; // Se o adversário recapturar
+            side ^= 1;
+            // Peças atrás das que já capturaram (raios X) passam a atacar
+            attackers |= (Bitboards.bishopAttacks(to, occ) & diagonal) | (Bitboards.rookAttacks(to, occ) & straight);
+            attackers &= occ;
+            fromSet = 0;
+            for (int type : SEE_ORDER) {
+                long b = attackers & pieces[side * 6 + type];
+                if (b != 0) {
+                    fromSet = b & -b;
+                    attacker = type;
+                    break;
+                }
+            }
+            occ ^= fromSet;
+        } while (fromSet != 0);
+        while (--d > 0) gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+        return gain[0];
+    }
+
+    // Valores da troca; o rei vale tanto que só captura por último
+    private static final int[] SEE_VALUES = {20000, 900, 500, 330, 320, 100};
+    private static final int[] SEE_ORDER = {PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING};
+    private final int[] seeGain = new int[40]; // No máximo 32 capturas na mesma casa
+
+    // Preenche "list" com os lances legais da peça na casa "sq"
+    int generateLegalFrom(int sq, MoveList list) {
+        list.clear();
+        if (mailbox[sq] == EMPTY) return 0;
+        int us = mailbox[sq] / 6;
+        if (us == turn.ordinal()) {
+            // Jogador da vez: filtra a lista completa já guardada
+            MoveList moves = legal();
+            for (int i = 0; i < moves.size(); i++)
+                if (Moves.from(moves.get(i)) == sq) list.add(moves.get(i));
+            return list.size();
+        }
+        addLegalMoves(sq, checkers(us), pinned(us), -1L, list);
+        return list.size();
+    }
+
+    private void addLegalMoves(int from, long checkers, long pinned, long mask, MoveList list) {
+        int code = mailbox[from];
+        long targets = pseudoTargets(from) & mask;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int move = pseudoMove(code, from, to);
+            // Remove movimentos que deixam o rei em xeque
+            if (!isLegal(move, checkers, pinned)) continue;
+            if (code % 6 == PAWN && (to >>> 3 == 7 || to >>> 3 == 0)) {
+                // Promoção: uma opção para cada peça
+                for (int promo = QUEEN; promo <= KNIGHT; promo++)
+                    list.add(move | (promo << 12));
+            } else {
+                list.add(move);
+            }
+        }
+        if (code % 6 == KING && checkers == 0 && (mask & CASTLING_TARGETS) != 0)
+            addCastling(code / 6, from, mask, list);
+    }
+
+    private static final long CASTLING_TARGETS =
+            Bitboards.bit(2) | Bitboards.bit(6) | Bitboards.bit(58) | Bitboards.bit(62);
+
+    // Lance (ainda sem promoção) de "from" para "to", com as flags certas
+    private int pseudoMove(int code, int from, int to) {
+        int flags = mailbox[to] != EMPTY ? Moves.FLAG_CAPTURE : 0;
+        if (code % 6 == PAWN) {
+            if (to == epSquare) flags = Moves.FLAG_CAPTURE | Moves.FLAG_EN_PASSANT;
+            else if (Math.abs(to - from) == 16) flags = Moves.FLAG_DOUBLE_PUSH;
+        }
+        return Moves.encode(from, to, 0, flags);
+    }
+
+    // Roques: casas entre rei e torre vazias, e o rei não passa por casa atacada.
+    // Só é chamado fora de xeque, então os lances já saem legais.
+    private void addCastling(int us, int from, long mask, MoveList list) {
+        int base = us == WHITE ? 0 : 56;
+        int rights = (castling >>> (2 * us)) & 3;
+        if (rights == 0 || from != base + 4) return;
+        // Destino do rei fora da máscara (ex.: só capturas) também exclui o roque
+        if ((mask & Bitboards.bit(base + 6)) != 0 && canCastle(us, from, true))
+            list.add(Moves.encode(from, base + 6, 0, Moves.FLAG_CASTLE));
+        if ((mask & Bitboards.bit(base + 2)) != 0 && canCastle(us, from, false))
+            list.add(Moves.encode(from, base + 2, 0, Moves.FLAG_CASTLE));
+    }
+
+    private boolean canCastle(int us, int from, boolean kingside) {
+        int base = us == WHITE ? 0 : 56;
+        int rights = (castling >>> (2 * us)) & 3;
+        if (from != base + 4 || (rights & (kingside ? 1 : 2)) == 0) return false;
+        int rook = us * 6 + ROOK;
+        long occ = occupancy();
+        int them = us ^ 1;
+        if (kingside)
+            return mailbox[base + 7] == rook
+                    && (occ & (Bitboards.bit(base + 5) | Bitboards.bit(base + 6))) == 0
+                    && !isAttacked(base + 5, them, occ) && !isAttacked(base + 6, them, occ);
+        return mailbox[base] == rook
+                && (occ & (Bitboards.bit(base + 1) | Bitboards.bit(base + 2) | Bitboards.bit(base + 3))) == 0
+                && !isAttacked(base + 3, them, occ) && !isAttacked(base + 2, them, occ);
+    }
+
+    // Destinos pseudo-legais da peça em "from" (ainda sem checar o próprio rei)
+    private long pseudoTargets(int from) {
+        int code = mailbox[from];
+        if (code == EMPTY) return 0L;
+        int color = code / 6;
+        int enemy = color ^ 1;
+        // Captura de rei nunca é um movimento
+        return code % 6 == PAWN ? pawnTargets(from, color)
+                : attacksFrom(from, code, occupancy()) & ~colors[color] & ~pieces[enemy * 6 + KING];
+    }
+
+    // Casas atacadas por uma peça em "sq" com a ocupação dada
+    private static long attacksFrom(int sq, int code, long occ) {
+        switch (code % 6) {
+            case KING:   return Bitboards.KING_ATTACKS[sq];
+            case QUEEN:  return Bitboards.queenAttacks(sq, occ);
+            case ROOK:   return Bitboards.rookAttacks(sq, occ);
+            case BISHOP: return Bitboards.bishopAttacks(sq, occ);
+            case KNIGHT: return Bitboards.KNIGHT_ATTACKS[sq];
+            default:     return Bitboards.PAWN_ATTACKS[code / 6][sq];
+        }
+    }
+
+    // Avanços simples/duplos e capturas do peão
+    private long pawnTargets(int from, int color) {
+        int enemy = color ^ 1;
+        long empty = ~occupancy();
+        long b = Bitboards.bit(from);
+        long single, dbl;
+        if (color == WHITE) {
+            single = (b << 8) & empty;
+            dbl = ((single & (Bitboards.RANK_2 << 8)) << 8) & empty;
+        } else {
+            single = (b >>> 8) & empty;
+            dbl = ((single & (Bitboards.RANK_7 >>> 8)) >>> 8) & empty;
+        }
+        long victims = colors[enemy] & ~pieces[enemy * 6 + KING];
+        if (epSquare >= 0 && color == turn.ordinal()) victims |= Bitboards.bit(epSquare);
+        return single | dbl | (Bitboards.PAWN_ATTACKS[color][from] & victims);
+    }
+
+    // Verifica se o jogador da vez não tem movimentos legais e está em xeque
+    public boolean isCheckmate() {
+        return checkers() != 0 && !hasLegalMove();
+    }
+
+    // Afogamento: sem movimentos legais e fora de xeque
+    public boolean isStalemate() {
+        return checkers() == 0 && !hasLegalMove();
+    }
+
+    // Situação do jogo: mate e afogamento têm prioridade sobre as regras de empate
+    public GameStatus status() {
+        if (!hasLegalMove())
+            return checkers() != 0 ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        if (halfmoveClock >= 100) return GameStatus.FIFTY_MOVE_RULE;
+        if (repetitions() >= 2) return GameStatus.THREEFOLD_REPETITION;
+        if (isInsufficientMaterial()) return GameStatus.INSUFFICIENT_MATERIAL;
+        return GameStatus.ONGOING;
+    }
+
+    // Quantas vezes a posição atual já apareceu antes no jogo (mesma vez e mesmos direitos).
+    // Só posições desde o último lance irreversível podem se repetir, então a procura no
+    // histórico vai no máximo até o relógio de 50 lances, de dois em dois plies
+    int repetitions() {
+        if (repetitionFilter[(int) key & REPETITION_FILTER_MASK] == 0) return 0;
+        int count = 0;
+        for (int i = ply - 2, limit = Math.max(0, ply - halfmoveClock); i >= limit; i -= 2)
+            if (history[i] == key) count++;
+        return count;
+    }
+
+    // Nenhum lado consegue dar mate: só reis, um rei com uma peça menor, ou só bispos
+    // (de qualquer cor) todos em casas da mesma cor
+    boolean isInsufficientMaterial() {
+        long heavy = pieces[PAWN] | pieces[6 + PAWN] | pieces[ROOK] | pieces[6 + ROOK]
+                | pieces[QUEEN] | pieces[6 + QUEEN];
+        if (heavy != 0) return false;
+        long knights = pieces[KNIGHT] | pieces[6 + KNIGHT];
+        long bishops = pieces[BISHOP] | pieces[6 + BISHOP];
+        if (Long.bitCount(knights | bishops) <= 1) return true;
+        return knights == 0 && ((bishops & DARK_SQUARES) == 0 || (bishops & ~DARK_SQUARES) == 0);
+    }
+
+    private static final long DARK_SQUARES = 0xAA55AA55AA55AA55L;
+
+    // Com a lista de lances já guardada, a resposta sai dela; senão procura só até o primeiro
+    private boolean hasLegalMove() {
+        if (legalValid && legalKey == key) return !legal.isEmpty();
+        // Roques não precisam entrar: se um roque é legal, o passo simples do rei também é
+        int us = turn.ordinal();
+        long checkers = checkers(), pinned = pinned();
+        long own = colors[us];
+        while (own != 0) {
+            int from = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            int code = mailbox[from];
+            long targets = pseudoTargets(from);
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if (isLegal(pseudoMove(code, from, to), checkers, pinned)) return true;
+            }
+        }
+        return false;
+    }
+
+    // Verifica se o rei da cor está em xeque
+    public boolean isInCheck(PieceColor color) {
+        if (color == turn) return inCheck();
+        int king = kingSquare[color.ordinal()];
+        return king >= 0 && (attacks(color.opposite().ordinal()) & Bitboards.bit(king)) != 0;
+    }
+
+    // Verifica se uma casa está sendo atacada pela cor attacker
+    public boolean isSquareAttacked(int r, int c, PieceColor attacker) {
+        return (attacks(attacker.ordinal()) & Bitboards.bit(Bitboards.square(r, c))) != 0;
+    }
+
+    // Ataque a uma casa: olha "de trás para frente" a partir da própria casa
+    boolean isAttacked(int sq, int attacker, long occ) {
+        int base = attacker * 6;
+        return (Bitboards.PAWN_ATTACKS[attacker ^ 1][sq] & pieces[base + PAWN]) != 0
+                || (Bitboards.KNIGHT_ATTACKS[sq] & pieces[base + KNIGHT]) != 0
+                || (Bitboards.KING_ATTACKS[sq] & pieces[base + KING]) != 0
+                || (Bitboards.bishopAttacks(sq, occ) & (pieces[base + BISHOP] | pieces[base + QUEEN])) != 0
+                || (Bitboards.rookAttacks(sq, occ) & (pieces[base + ROOK] | pieces[base + QUEEN])) != 0;
+    }
+
+    // Todas as peças (das duas cores) que atacam uma casa
+    long attackersTo(int sq, long occ) {
+        return (Bitboards.PAWN_ATTACKS[BLACK][sq] & pieces[WHITE * 6 + PAWN])
+                | (Bitboards.PAWN_ATTACKS[WHITE][sq] & pieces[BLACK * 6 + PAWN])
+                | (Bitboards.KNIGHT_ATTACKS[sq] & (pieces[KNIGHT] | pieces[6 + KNIGHT]))
+                | (Bitboards.KING_ATTACKS[sq] & (pieces[KING] | pieces[6 + KING]))
+                | (Bitboards.bishopAttacks(sq, occ) & (pieces[BISHOP] | pieces[6 + BISHOP]
+                        | pieces[QUEEN] | pieces[6 + QUEEN]))
+                | (Bitboards.rookAttacks(sq, occ) & (pieces[ROOK] | pieces[6 + ROOK]
+                        | pieces[QUEEN] | pieces[6 + QUEEN]));
+    }
+
+    // Peças adversárias que dão xeque ao rei da cor "us"
+    long checkers(int us) {
+        int king = kingSquare[us];
+        return king < 0 ? 0L : attackersTo(king, occupancy()) & colors[us ^ 1];
+    }
+
+    // Peças da cor "us" cravadas contra o próprio rei
+    long pinned(int us) {
+        int them = us ^ 1;
+        int king = kingSquare[us];
+        if (king < 0) return 0L;
+        long occ = occupancy();
+        long snipers = (Bitboards.rookAttacks(king, 0L) & (pieces[them * 6 + ROOK] | pieces[them * 6 + QUEEN]))
+                | (Bitboards.bishopAttacks(king, 0L) & (pieces[them * 6 + BISHOP] | pieces[them * 6 + QUEEN]));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int s = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long between = Bitboards.BETWEEN[king][s] & occ;
+            if (Long.bitCount(between) == 1) pinned |= between & colors[us];
+        }
+        return pinned;
+    }
+
+    // Legalidade de um lance pseudo-legal, sem mexer no tabuleiro: o rei não pode ir
+    // para casa atacada; as demais peças precisam respeitar cravadas e xeques
+    boolean isLegal(int move, long checkers, long pinned) {
+        int from = Moves.from(move), to = Moves.to(move);
+        int us = mailbox[from] / 6;
+        int king = kingSquare[us];
+        if (king < 0) return false;
+        if (Moves.isCastle(move)) return true; // Conferido ao gerar o roque
+        if (Moves.isEnPassant(move)) return isEnPassantLegal(from, to, us, king);
+        if (from == king)
+            return !isAttacked(to, us ^ 1, occupancy() ^ Bitboards.bit(from));
+        if (checkers != 0) {
+            if ((checkers & (checkers - 1)) != 0) return false; // xeque duplo: só o rei se move
+            int checker = Long.numberOfTrailingZeros(checkers);
+            if (((Bitboards.BETWEEN[king][checker] | checkers) & Bitboards.bit(to)) == 0) return false;
+        }
+        return (pinned & Bitboards.bit(from)) == 0
+                || (Bitboards.LINE[king][from] & Bitboards.bit(to)) != 0;
+    }
+
+    // En passant tira duas peças da mesma fileira: confere o rei com a ocupação final
+    private boolean isEnPassantLegal(int from, int to, int us, int king) {
+        int them = us ^ 1, capturedSq = us == WHITE ? to - 8 : to + 8;
+        long occ = occupancy() ^ Bitboards.bit(from) ^ Bitboards.bit(capturedSq) | Bitboards.bit(to);
+        int base = them * 6;
+        return (Bitboards.PAWN_ATTACKS[us][king] & pieces[base + PAWN] & ~Bitboards.bit(capturedSq)) == 0
+                && (Bitboards.KNIGHT_ATTACKS[king] & pieces[base + KNIGHT]) == 0
+                && (Bitboards.bishopAttacks(king, occ) & (pieces[base + BISHOP] | pieces[base + QUEEN])) == 0
+                && (Bitboards.rookAttacks(king, occ) & (pieces[base + ROOK] | pieces[base + QUEEN])) == 0;
+    }
+
+    // Verifica se um movimento deixaria o rei em xeque
+    public boolean wouldLeaveKingInCheck(Move mv) {
+        int from = Bitboards.square(mv.fromR, mv.fromC);
+        int code = mailbox[from];
+        if (code == EMPTY) return true; // Sem peça → movimento ilegal
+        int us = code / 6;
+        boolean toMove = us == turn.ordinal();
+        return !isLegal(pseudoMove(code, from, Bitboards.square(mv.toR, mv.toC)),
+                toMove ? checkers() : checkers(us), toMove ? pinned() : pinned(us));
+    }
+
+    // Verifica se a posição está dentro do tabuleiro
+    static boolean inBounds(int r, int c) {
+        return r >= 0 && r < BOARD_SIZE && c >= 0 && c < BOARD_SIZE;
+    }
+}
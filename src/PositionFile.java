@@ -0,0 +1,174 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;          // O arquivo é lido direto da cache de páginas do sistema
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Arquivo de posições empacotadas (PackedPosition, 32 bytes cada, sem cabeçalho), para
+// análises em lote sobre centenas de milhões de posições. A leitura é por mapeamento de
+// memória: a posição i está em i * 32, então o acesso é direto e nada é interpretado nem
+// alocado por posição; o sistema operacional cuida de trazer as páginas do disco.
+//
+//     try (PositionFile file = PositionFile.open(path)) {
+//         Position pos = new Position();
+//         for (long i = 0; i < file.size(); i++) { file.read(i, pos); ... }
+//     }
+//
+// Uso: java PositionFile pgn entrada.pgn saida.bin   (todas as posições das partidas válidas)
+//      java PositionFile scan arquivo.bin            (lê tudo e mostra a velocidade)
+final class PositionFile implements Closeable {
+    // Um MappedByteBuffer só endereça 2 GB: o arquivo é mapeado em segmentos de 1 GB
+    private static final int SEGMENT_SHIFT = 30 - 5; // 2^25 posições por segmento
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private PositionFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long bytes = channel.size();
+        if (bytes % PackedPosition.SIZE != 0)
+            throw new IOException("Tamanho não é múltiplo de " + PackedPosition.SIZE + " bytes: " + bytes);
+        size = bytes / PackedPosition.SIZE;
+        segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = ((long) i << SEGMENT_SHIFT) * PackedPosition.SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(bytes - start,
+                    (SEGMENT_MASK + 1) * PackedPosition.SIZE));
+        }
+    }
+
+    static PositionFile open(Path path) throws IOException {
+        return new PositionFile(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    // Número de posições no arquivo
+    long size() {
+        return size;
+    }
+
+    // Lê a posição i para dentro de "pos" (sem histórico)
+    void read(long index, Position pos) {
+        PackedPosition.unpack(segment(index), offset(index), pos);
+    }
+
+    int score(long index) {
+        return PackedPosition.score(segment(index), offset(index));
+    }
+
+    int result(long index) {
+        return PackedPosition.result(segment(index), offset(index));
+    }
+
+    private ByteBuffer segment(long index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Posição " + index + " de " + size);
+        return segments[(int) (index >>> SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index & SEGMENT_MASK) * PackedPosition.SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close(); // Os mapeamentos são liberados pelo coletor junto com os buffers
+    }
+
+    // Escrita sequencial, em blocos: cada posição é empacotada direto no buffer
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(PgnReader.BUFFER_SIZE);
+        private long count;
+
+        Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void write(Position pos, int score, int result) throws IOException {
+            if (buffer.remaining() < PackedPosition.SIZE) flush();
+            PackedPosition.pack(pos, score, result, buffer, buffer.position());
+            buffer.position(buffer.position() + PackedPosition.SIZE);
+            count++;
+        }
+
+        long count() {
+            return count;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("pgn")) {
+            convert(Paths.get(args[1]), Paths.get(args[2]));
+        } else if (args.length == 2 && args[0].equals("scan")) {
+            scan(Paths.get(args[1]));
+        } else {
+            System.err.println("Uso: java PositionFile pgn entrada.pgn saida.bin | scan arquivo.bin");
+        }
+    }
+
+    // Cada posição de cada partida válida do PGN, com o resultado da partida
+    private static void convert(Path pgn, Path out) throws IOException {
+        long start = System.nanoTime();
+        try (PgnReader reader = new PgnReader(pgn); Writer writer = new Writer(out)) {
+            int[] moves = new int[256];
+            while (reader.next()) {
+                if (reader.error() != null) continue;
+                Position pos = reader.position();
+                int result = PackedPosition.result(reader.result());
+                if (moves.length < pos.ply()) moves = new int[pos.ply() * 2];
+                int plies = pos.ply();
+                for (int i = plies - 1; i >= 0; i--) {
+                    moves[i] = pos.moveAt(i);
+                    pos.unmakeMove();
+                }
+                writer.write(pos, PackedPosition.NO_SCORE, result);
+                for (int i = 0; i < plies; i++) {
+                    pos.makeMove(moves[i]);
+                    writer.write(pos, PackedPosition.NO_SCORE, result);
+                }
+            }
+            System.err.printf("%d partidas, %d posições em %.1f s%n", reader.games(), writer.count(),
+                    (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    // Lê todas as posições, contando resultados e posições com xeque
+    private static void scan(Path path) throws IOException {
+        long start = System.nanoTime();
+        try (PositionFile file = open(path)) {
+            Position pos = new Position();
+            long[] results = new long[4];
+            long checks = 0;
+            for (long i = 0; i < file.size(); i++) {
+                file.read(i, pos);
+                if (pos.inCheck()) checks++;
+                results[file.result(i)]++;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("%d posições em %.1f s (%.1f M/s): %d com xeque; +%d =%d -%d, %d sem resultado%n",
+                    file.size(), seconds, file.size() / 1e6 / seconds, checks,
+                    results[PackedPosition.RESULT_WHITE_WINS], results[PackedPosition.RESULT_DRAW],
+                    results[PackedPosition.RESULT_BLACK_WINS], results[PackedPosition.RESULT_UNKNOWN]);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+// Notação algébrica padrão (SAN), usada no PGN: "e4", "Nbd7", "exd8=Q+", "O-O-O".
+// Os lances são conferidos contra os lances legais da posição, então a notação sai mínima
+// (só desambigua quando precisa) e a leitura aceita variações comuns ("0-0", "e8Q", "Nf3!?").
+final class San {
+    private San() {}
+
+    private static final String PIECE_LETTERS = "KQRBN"; // Mesma ordem de PieceType, sem o peão
+
+    // Escreve o lance legal "move" da posição em SAN (a posição volta ao estado original)
+    static String toString(Position pos, int move) {
+        StringBuilder sb = new StringBuilder(8);
+        int from = Moves.from(move), to = Moves.to(move);
+        int type = pos.pieceCodeAt(from) % 6;
+        if (Moves.isCastle(move)) {
+            sb.append((to & 7) == 6 ? "O-O" : "O-O-O");
+        } else if (type == Position.PAWN) {
+            if (Moves.isCapture(move)) sb.append((char) ('a' + (from & 7))).append('x');
+            Moves.appendSquare(sb, to);
+            int promo = Moves.promotion(move);
+            if (promo != 0) sb.append('=').append(PIECE_LETTERS.charAt(promo));
+        } else {
+            sb.append(PIECE_LETTERS.charAt(type));
+            appendDisambiguation(sb, pos, move, type);
+            if (Moves.isCapture(move)) sb.append('x');
+            Moves.appendSquare(sb, to);
+        }
+        pos.makeMove(move);
+        if (pos.inCheck()) sb.append(pos.isCheckmate() ? '#' : '+');
+        pos.unmakeMove();
+        return sb.toString();
+    }
+
+    // Outra peça do mesmo tipo pode ir para a mesma casa: coluna, fileira ou as duas
+    private static void appendDisambiguation(StringBuilder sb, Position pos, int move, int type) {
+        int from = Moves.from(move), to = Moves.to(move);
+        MoveList list = new MoveList();
+        pos.generateLegal(list);
+        boolean ambiguous = false, sameFile = false, sameRank = false;
+        for (int i = 0; i < list.size(); i++) {
+            int other = list.get(i), o = Moves.from(other);
+            if (o == from || Moves.to(other) != to || pos.pieceCodeAt(o) % 6 != type) continue;
+            ambiguous = true;
+            if ((o & 7) == (from & 7)) sameFile = true;
+            if ((o >>> 3) == (from >>> 3)) sameRank = true;
+        }
+        if (!ambiguous) return;
+        if (!sameFile) sb.append((char) ('a' + (from & 7)));
+        else if (!sameRank) sb.append((char) ('1' + (from >>> 3)));
+        else Moves.appendSquare(sb, from);
+    }
+
+    // Lance legal descrito em SAN, ou Moves.NONE se não houver exatamente um
+    static int parse(Position pos, String san) {
+        return parse(pos, san, new MoveList());
+    }
+
+    // Mesma leitura, usando o buffer do chamador para os lances legais (sem alocação)
+    static int parse(Position pos, String san, MoveList list) {
+        String s = san;
+        int end = s.length();
+        while (end > 0 && "+#!?".indexOf(s.charAt(end - 1)) >= 0) end--;
+        s = s.substring(0, end);
+        if (s.isEmpty()) return Moves.NONE;
+
+        pos.generateLegal(list);
+        if (s.equals("O-O") || s.equals("0-0") || s.equals("O-O-O") || s.equals("0-0-0")) {
+            int file = s.length() == 3 ? 6 : 2;
+            for (int i = 0; i < list.size(); i++)
+                if (Moves.isCastle(list.get(i)) && (Moves.to(list.get(i)) & 7) == file) return list.get(i);
+            return Moves.NONE;
+        }
+
+        int type = Position.PAWN;
+        int start = 0;
+        if (PIECE_LETTERS.indexOf(s.charAt(0)) >= 0) {
+            type = PIECE_LETTERS.indexOf(s.charAt(0));
+            start = 1;
+        }
+        // Promoção: "e8=Q" ou "e8Q"
+        int promo = 0;
+        if (type == Position.PAWN && s.length() >= 3 && PIECE_LETTERS.indexOf(s.charAt(s.length() - 1)) > 0) {
+            promo = PIECE_LETTERS.indexOf(s.charAt(s.length() - 1));
+            s = s.substring(0, s.charAt(s.length() - 2) == '=' ? s.length() - 2 : s.length() - 1);
+        }
+        if (s.length() - start < 2) return Moves.NONE;
+        int to;
+        try {
+            to = Fen.parseSquare(s.substring(s.length() - 2));
+        } catch (IllegalArgumentException e) {
+            return Moves.NONE;
+        }
+        // O que sobra entre a peça e o destino: coluna e/ou fileira de origem, e o "x"
+        int fromFile = -1, fromRank = -1;
+        for (int i = start; i < s.length() - 2; i++) {
+            char ch = s.charAt(i);
+            if (ch >= 'a' && ch <= 'h') fromFile = ch - 'a';
+            else if (ch >= '1' && ch <= '8') fromRank = ch - '1';
+            else if (ch != 'x' && ch != '-' && ch != ':') return Moves.NONE;
+        }
+
+        int found = Moves.NONE;
+        for (int i = 0; i < list.size(); i++) {
+            int move = list.get(i), from = Moves.from(move);
+            if (Moves.to(move) != to || pos.pieceCodeAt(from) % 6 != type || Moves.isCastle(move)) continue;
+            if (fromFile >= 0 && (from & 7) != fromFile) continue;
+            if (fromRank >= 0 && (from >>> 3) != fromRank) continue;
+            // Promoção sem a letra da peça: assume rainha
+            int wanted = promo == 0 && type == Position.PAWN && isPromotion(move) ? Position.QUEEN : promo;
+            if (Moves.promotion(move) != wanted) continue;
+            if (found != Moves.NONE) return Moves.NONE; // Ambíguo
+            found = move;
+        }
+        return found;
+    }
+
+    private static boolean isPromotion(int move) {
+        int rank = Moves.to(move) >>> 3;
+        return rank == 0 || rank == 7;
+    }
+}
@@ -0,0 +1,46 @@
+// Resultado de uma iteração da busca: profundidade, pontuação, nós e tempo gasto, e as medidas
+// de qualidade da busca (acertos na tabela, ordenação dos lances, fator de ramificação).
+// Usado para acompanhar a IA e dimensionar servidores (nós por segundo).
+public final class SearchInfo {
+    public final int depth;
+    public final int score;       // Centipeões, do ponto de vista de quem joga
+    public final long nodes;      // Todos os nós, somando as threads
+    public final long qnodes;     // Dos quais na busca de quiescência
+    public final long timeMillis; // Desde o início da busca
+    public final long iterationMillis;
+    public final double ttHitRate;           // Consultas à tabela que acharam a posição
+    public final double firstMoveCutoffRate; // Cortes beta feitos já pelo primeiro lance
+    public final double branchingFactor;     // Nós desta iteração / nós da anterior (0 na primeira)
+    final int bestMove;           // Lance codificado (veja Moves)
+
+    SearchInfo(int depth, int score, long nodes, long timeMillis, int bestMove) {
+        this(depth, score, nodes, 0, timeMillis, timeMillis, 0, 0, 0, bestMove);
+    }
+
+    SearchInfo(int depth, int score, long nodes, long qnodes, long timeMillis, long iterationMillis,
+               double ttHitRate, double firstMoveCutoffRate, double branchingFactor, int bestMove) {
+        this.depth = depth;
+        this.score = score;
+        this.nodes = nodes;
+        this.qnodes = qnodes;
+        this.timeMillis = timeMillis;
+        this.iterationMillis = iterationMillis;
+        this.ttHitRate = ttHitRate;
+        this.firstMoveCutoffRate = firstMoveCutoffRate;
+        this.branchingFactor = branchingFactor;
+        this.bestMove = bestMove;
+    }
+
+    public long nodesPerSecond() {
+        return nodes * 1000 / Math.max(1, timeMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " score " + score + " nodes " + nodes + " qnodes " + qnodes
+                + " time " + timeMillis + "ms iteration " + iterationMillis + "ms nps " + nodesPerSecond()
+                + String.format(java.util.Locale.ROOT, " tthit %.2f firstcut %.2f ebf %.2f",
+                ttHitRate, firstMoveCutoffRate, branchingFactor)
+                + " best " + Moves.toString(bestMove);
+    }
+}
@@ -0,0 +1,53 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;          // Evento do Java Flight Recorder: custo quase nulo sem gravação
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Uma iteração do aprofundamento iterativo, para o Java Flight Recorder. A duração do evento
+// é a da iteração. Para gravar:
+//   java -XX:StartFlightRecording=filename=busca.jfr Tournament ...
+//   jfr print --events xadrez.SearchIteration busca.jfr
+@Name("xadrez.SearchIteration")
+@Label("Iteração da busca")
+@Category({"Xadrez", "Busca"})
+@Description("Uma profundidade do aprofundamento iterativo da ChessAI")
+final class SearchIterationEvent extends Event {
+    @Label("Profundidade")
+    int depth;
+
+    @Label("Pontuação")
+    int score;
+
+    @Label("Nós")
+    long nodes;
+
+    @Label("Nós de quiescência")
+    long qnodes;
+
+    @Label("Acertos na tabela de transposição")
+    double ttHitRate;
+
+    @Label("Cortes no primeiro lance")
+    double firstMoveCutoffRate;
+
+    @Label("Fator de ramificação efetivo")
+    double branchingFactor;
+
+    @Label("Melhor lance")
+    String bestMove;
+
+    void commit(SearchInfo info) {
+        end();
+        if (!shouldCommit()) return;
+        depth = info.depth;
+        score = info.score;
+        nodes = info.nodes;
+        qnodes = info.qnodes;
+        ttHitRate = info.ttHitRate;
+        firstMoveCutoffRate = info.firstMoveCutoffRate;
+        branchingFactor = info.branchingFactor;
+        bestMove = Moves.toString(info.bestMove);
+        commit();
+    }
+}
@@ -0,0 +1,295 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Muitas partidas humano × IA ao mesmo tempo, num processo só, sem interface.
+//
+// Cada sessão guarda só o necessário para refazer a partida: a posição inicial empacotada
+// (32 bytes, PackedPosition) e os lances em 16 bits (Moves.toShort). O Position completo
+// (vários KB) é recriado quando a sessão é usada, refazendo os lances — microssegundos — então
+// milhares de sessões paradas custam poucos KB cada.
+//
+// A vez da IA entra numa fila única (FIFO) atendida por um número fixo de threads, cada uma com
+// sua ChessAI: cada sessão tem no máximo um pedido na fila, então nenhuma passa na frente das
+// outras e o número de buscas simultâneas nunca passa do número de instâncias. O tempo de cada
+// lance da IA sai do orçamento da sessão (thinkMillis por lance, budgetMillis no total); com o
+// orçamento esgotado a IA ainda joga, no tempo mínimo.
+final class SessionManager {
+    static final long DEFAULT_THINK_MILLIS = 1000;
+    static final long MAX_THINK_MILLIS = 10_000;
+    static final long DEFAULT_BUDGET_MILLIS = 5 * 60_000;
+
+    // Uma partida. Todo acesso ao estado é feito com o lock da sessão. É um ReentrantLock, e não
+    // synchronized/wait: quem espera a IA (long-poll do GameServer) é uma virtual thread, e
+    // Object.wait dentro de um monitor prenderia a thread do sistema por até MAX_WAIT_MILLIS
+    static final class Session {
+        final long id;
+        final ReentrantLock lock = new ReentrantLock();
+        private final Condition replied = lock.newCondition(); // A IA jogou ou a sessão fechou
+        final PieceColor human;
+        final long thinkMillis;          // Por lance da IA
+        private final byte[] start = new byte[PackedPosition.SIZE];
+        private short[] moves = new short[16];
+        private int moveCount;
+        private long budgetMillis;       // Tempo de IA que ainda resta para a partida
+        private boolean thinking;        // Vez da IA, na fila ou buscando
+        private boolean closed;
+        private volatile long lastUsed;  // System.nanoTime() do último acesso
+
+        private Session(long id, Position startPosition, PieceColor human, long thinkMillis, long budgetMillis) {
+            this.id = id;
+            this.human = human;
+            this.thinkMillis = thinkMillis;
+            this.budgetMillis = budgetMillis;
+            PackedPosition.pack(startPosition, PackedPosition.NO_SCORE, PackedPosition.RESULT_UNKNOWN,
+                    ByteBuffer.wrap(start), 0);
+            touch();
+        }
+
+        private void touch() {
+            lastUsed = System.nanoTime();
+        }
+
+        // Refaz a partida a partir da posição inicial
+        Position position() {
+            lock.lock();
+            try {
+                Position pos = new Position();
+                PackedPosition.unpack(ByteBuffer.wrap(start), 0, pos);
+                MoveList buffer = new MoveList();
+                for (int i = 0; i < moveCount; i++) pos.makeMove(Moves.fromShort(pos, moves[i], buffer));
+                return pos;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isThinking() {
+            lock.lock();
+            try {
+                return thinking;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int moveCount() {
+            lock.lock();
+            try {
+                return moveCount;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long budgetMillis() {
+            lock.lock();
+            try {
+                return budgetMillis;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Último lance da partida, em coordenadas (null se ainda não houve)
+        String lastMove() {
+            lock.lock();
+            try {
+                return moveCount == 0 ? null : Moves.toString(moves[moveCount - 1]);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void append(int move) {
+            if (moveCount == moves.length) moves = Arrays.copyOf(moves, moveCount * 2);
+            moves[moveCount++] = Moves.toShort(move);
+        }
+
+        // Espera a IA responder, por até timeoutMillis
+        void awaitReply(long timeoutMillis) throws InterruptedException {
+            long nanos = timeoutMillis * 1_000_000L;
+            lock.lock();
+            try {
+                while (thinking && !closed && nanos > 0) nanos = replied.awaitNanos(nanos);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final BlockingQueue<Session> turns = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final int maxSessions;
+    private final LongAdder searches = new LongAdder(), searchMillis = new LongAdder();
+    private volatile boolean running = true;
+
+    // "engines" buscas simultâneas, cada uma com uma tabela de hashMb MB
+    SessionManager(int engines, int hashMb, int maxSessions) {
+        this.maxSessions = maxSessions;
+        for (int i = 0; i < engines; i++) {
+            ChessAI ai = new ChessAI(new TranspositionTable(hashMb));
+            Thread t = new Thread(() -> work(ai), "SessionManager-engine-" + i);
+            t.setDaemon(true);
+            workers.add(t);
+            t.start();
+        }
+    }
+
+    // Nova partida; se a IA começa, o primeiro lance dela já vai para a fila
+    Session create(Position start, PieceColor human, long thinkMillis, long budgetMillis) {
+        if (sessions.size() >= maxSessions) throw new IllegalStateException("Limite de " + maxSessions + " sessões");
+        if (start.status().isOver()) throw new IllegalArgumentException("A partida já terminou nessa posição");
+        long think = Math.max(TimeControl.MIN_THINK_MILLIS, Math.min(MAX_THINK_MILLIS, thinkMillis));
+        Session s = new Session(nextId.getAndIncrement(), start, human, think, Math.max(0, budgetMillis));
+        sessions.put(s.id, s);
+        if (start.getTurn() != human) {
+            s.lock.lock();
+            try {
+                requestReply(s);
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return s;
+    }
+
+    Session get(long id) {
+        Session s = sessions.get(id);
+        if (s != null) s.touch();
+        return s;
+    }
+
+    boolean close(long id) {
+        Session s = sessions.remove(id);
+        if (s == null) return false;
+        s.lock.lock();
+        try {
+            s.closed = true;
+            s.replied.signalAll();
+        } finally {
+            s.lock.unlock();
+        }
+        return true;
+    }
+
+    // Lance do jogador, em coordenadas ("e2e4", "e7e8q"); em seguida a IA entra na fila
+    void play(Session s, String text) {
+        s.lock.lock();
+        try {
+            if (s.closed) throw new IllegalStateException("Sessão encerrada");
+            if (s.thinking) throw new IllegalStateException("A IA está pensando");
+            Position pos = s.position();
+            if (pos.status().isOver()) throw new IllegalStateException("A partida terminou");
+            if (pos.getTurn() != s.human) throw new IllegalStateException("Não é a vez do jogador");
+            int move = Moves.parse(pos, text);
+            if (move == Moves.NONE) throw new IllegalArgumentException("Lance ilegal: " + text);
+            s.append(move);
+            s.touch();
+            pos.makeMove(move);
+            if (!pos.status().isOver()) requestReply(s);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    // Chamado com o lock da sessão
+    private void requestReply(Session s) {
+        s.thinking = true;
+        turns.add(s);
+    }
+
+    // Thread de uma instância da IA: atende a fila em ordem de chegada
+    private void work(ChessAI ai) {
+        MoveList root = new MoveList();
+        while (running) {
+            Session s;
+            try {
+                s = turns.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Position pos;
+            int ply;
+            long think;
+            s.lock.lock();
+            try {
+                if (s.closed || !s.thinking) continue;
+                pos = s.position();
+                ply = s.moveCount;
+                // Parte do que resta do orçamento, como um relógio sem incremento
+                think = s.budgetMillis <= 0 ? TimeControl.MIN_THINK_MILLIS
+                        : Math.min(s.thinkMillis, TimeControl.allocate(s.budgetMillis, 0, 0));
+            } finally {
+                s.lock.unlock();
+            }
+            long start = System.nanoTime();
+            int best;
+            try {
+                best = ai.search(pos, think, ChessAI.MAX_PLY, root);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                best = Moves.NONE;
+            }
+            long used = (System.nanoTime() - start) / 1_000_000L;
+            searches.increment();
+            searchMillis.add(used);
+            s.lock.lock();
+            try {
+                s.budgetMillis = Math.max(0, s.budgetMillis - used);
+                if (!s.closed && s.moveCount == ply && best != Moves.NONE) s.append(best);
+                s.thinking = false;
+                s.replied.signalAll();
+            } finally {
+                s.lock.unlock();
+            }
+        }
+    }
+
+    // Encerra as sessões sem uso há mais de idleMillis; devolve quantas
+    int evictIdle(long idleMillis) {
+        long limit = System.nanoTime() - idleMillis * 1_000_000L;
+        int evicted = 0;
+        for (Session s : sessions.values()) {
+            if (s.lastUsed < limit && !s.isThinking() && close(s.id)) evicted++;
+        }
+        return evicted;
+    }
+
+    int sessionCount() {
+        return sessions.size();
+    }
+
+    int queued() {
+        return turns.size();
+    }
+
+    int engines() {
+        return workers.size();
+    }
+
+    long searches() {
+        return searches.sum();
+    }
+
+    long searchMillis() {
+        return searchMillis.sum();
+    }
+
+    void shutdown() {
+        running = false;
+        for (Thread t : workers) t.interrupt();
+        for (Long id : sessions.keySet()) close(id);
+    }
+}
@@ -0,0 +1,376 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;           // Blocos guardados comprimidos (Deflate)
+
+// Tabelas de finais com até MAX_PIECES peças, geradas por TablebaseGenerator: para cada
+// posição, a distância até o mate (em plies) com jogo perfeito, ou empate. Cada material
+// ("KQKR": rei e dama contra rei e torre) tem um arquivo na pasta; as posições em que o lado
+// mais fraco tem as brancas são consultadas espelhadas, trocando as cores.
+//
+// Formato do arquivo (little-endian):
+//   "XTB1", número de peças n, os n códigos das peças (Piece, em ordem crescente),
+//   tamanho do bloco, número de blocos, posição de cada bloco no arquivo (+ a do fim),
+//   e os blocos, comprimidos com Deflate.
+// Cada posição ocupa 1 byte no bloco: 0 = empate (ou posição ilegal), d + 1 = mate em d plies,
+// vitória de quem joga se d for ímpar e derrota se for par. O índice é
+//   vez << 6n | casa da peça 0 << 6(n-1) | ... | casa da peça n-1
+// Só os blocos consultados são lidos e descomprimidos; os mais usados ficam num cache de
+// tamanho fixo, então a memória não depende de quantas tabelas existem.
+//
+// As threads da busca (Lazy SMP) consultam ao mesmo tempo, sem trava: o mapa de tabelas é um
+// ConcurrentHashMap (material sem arquivo fica marcado como MISSING), o cache é associativo de
+// CACHE_WAYS vias com despejo pelo relógio (cada bloco tem um bit de uso, limpo quando o
+// ponteiro passa), e cada thread tem seu Inflater e seus vetores de trabalho. Duas threads que
+// erram o mesmo bloco ao mesmo tempo podem lê-lo as duas; o resultado é igual.
+//
+// Uso: java Tablebase generate pasta [3 | 4 | KQK KRKP ...]  (padrão: 3; dependências incluídas)
+//      java Tablebase probe pasta FEN
+final class Tablebase {
+    static final int MAX_PIECES = 4;
+    static final int NOT_FOUND = Integer.MIN_VALUE;
+    static final String DEFAULT_DIR = "tablebases"; // Carregada pela interface, se existir
+    static final String EXTENSION = ".xtb";
+    static final int BLOCK_SIZE = 8192;
+    static final int DEFAULT_CACHE_BLOCKS = 1024;   // 8 MB de blocos descomprimidos
+    static final int CACHE_WAYS = 4;                // Blocos candidatos para cada chave
+    static final int MAGIC = 0x31425458;            // "XTB1"
+    static final String PIECE_LETTERS = "KQRBNP";   // Mesma ordem de PieceType
+
+    // Um arquivo aberto: só o cabeçalho fica em memória
+    private static final class Table {
+        final FileChannel channel;
+        final long[] offsets;
+
+        Table(FileChannel channel, long[] offsets) {
+            this.channel = channel;
+            this.offsets = offsets;
+        }
+    }
+
+    private static final Table MISSING = new Table(null, null); // Material sem arquivo (ou ilegível)
+
+    // Um bloco descomprimido no cache. Imutável, menos o bit de uso do relógio
+    private static final class Block {
+        final long key;
+        final byte[] data;
+        volatile boolean used = true;
+
+        Block(long key, byte[] data) {
+            this.key = key;
+            this.data = data;
+        }
+    }
+
+    // Vetores de trabalho de cada thread: a consulta não aloca nem divide o Inflater
+    private static final class Scratch {
+        final int[] codes = new int[MAX_PIECES], squares = new int[MAX_PIECES];
+        final Inflater inflater = new Inflater();
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final Path dir;
+    private final Map<Integer, Table> tables = new ConcurrentHashMap<>(); // Material → tabela
+    private final AtomicReferenceArray<Block> cache; // sets × CACHE_WAYS
+    private final int[] hands;                       // Ponteiro do relógio de cada conjunto
+    private final int sets;                          // Potência de 2
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+    Tablebase(Path dir) {
+        this(dir, DEFAULT_CACHE_BLOCKS);
+    }
+
+    Tablebase(Path dir, int cacheBlocks) {
+        this.dir = dir;
+        sets = Integer.highestOneBit(Math.max(1, cacheBlocks / CACHE_WAYS));
+        cache = new AtomicReferenceArray<>(sets * CACHE_WAYS);
+        hands = new int[sets];
+    }
+
+    // Pontuação exata da posição para quem joga, na escala da busca (mate a "ply" plies da
+    // raiz vale MATE - plies), ou NOT_FOUND se não há tabela para ela. Roques e en passant
+    // ficam de fora das tabelas
+    int score(Position pos, int ply) {
+        long occ = pos.occupancy();
+        int n = Long.bitCount(occ);
+        if (n > MAX_PIECES || pos.castlingRights() != 0 || pos.enPassantSquare() >= 0) return NOT_FOUND;
+        if (n == 2) return 0; // Só os reis
+        Scratch scratch = SCRATCH.get();
+        int[] codes = scratch.codes, squares = scratch.squares;
+        int i = 0;
+        for (long b = occ; b != 0; b &= b - 1, i++) {
+            squares[i] = Long.numberOfTrailingZeros(b);
+            codes[i] = pos.pieceCodeAt(squares[i]);
+        }
+        int stm = pos.getTurn().ordinal();
+        if (canonicalize(codes, squares, n)) stm ^= 1;
+        int v = value(materialKey(codes, n), index(squares, n, stm), scratch.inflater);
+        if (v <= 0) return v < 0 ? NOT_FOUND : 0;
+        int d = v - 1;
+        return (d & 1) != 0 ? ChessAI.MATE - (ply + d) : -(ChessAI.MATE - (ply + d));
+    }
+
+    // Melhor lance pela tabela entre os lances legais da posição, ou NONE se alguma
+    // posição seguinte não estiver nas tabelas
+    int bestMove(Position pos, MoveList legal) {
+        int best = Moves.NONE, bestScore = -ChessAI.INFINITY;
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            pos.makeMove(move);
+            int score = score(pos, 1);
+            pos.unmakeMove();
+            if (score == NOT_FOUND) return Moves.NONE;
+            if (-score > bestScore) {
+                bestScore = -score;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    // Blocos achados no cache e lidos do disco
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    // Byte da posição "index" do material, ou -1 se não há tabela
+    private int value(int material, int index, Inflater inflater) {
+        Table table = tables.get(material);
+        if (table == null) table = tables.computeIfAbsent(material, this::open); // Só na primeira vez
+        if (table == MISSING) return -1;
+        int block = index / BLOCK_SIZE;
+        long cacheKey = (long) material << 32 | block;
+        int base = set(cacheKey) * CACHE_WAYS;
+        for (int w = 0; w < CACHE_WAYS; w++) {
+            Block b = cache.get(base + w);
+            if (b != null && b.key == cacheKey) {
+                hits.increment();
+                if (!b.used) b.used = true;
+                return b.data[index % BLOCK_SIZE] & 0xFF;
+            }
+        }
+        misses.increment();
+        byte[] data;
+        try {
+            data = readBlock(table, block, inflater);
+        } catch (IOException | DataFormatException e) {
+            System.err.println("Tabela de finais ilegível, ignorada: " + e.getMessage());
+            tables.put(material, MISSING);
+            return -1;
+        }
+        insert(base, cacheKey, data);
+        return data[index % BLOCK_SIZE] & 0xFF;
+    }
+
+    private int set(long cacheKey) {
+        return (int) ((cacheKey * 0x9E3779B97F4A7C15L) >>> 32) & (sets - 1);
+    }
+
+    // Relógio dentro do conjunto: o ponteiro limpa o bit de uso dos blocos por onde passa e
+    // substitui o primeiro sem uso (depois de uma volta inteira, o primeiro em que passou).
+    // Sem trava: dois inserts ao mesmo tempo no conjunto no máximo despejam um bloco a mais
+    private void insert(int base, long cacheKey, byte[] data) {
+        int set = base / CACHE_WAYS, hand = hands[set];
+        for (int step = 0; ; step++) {
+            int way = (hand + step) % CACHE_WAYS;
+            Block b = cache.get(base + way);
+            if (b == null || !b.used || step == CACHE_WAYS) {
+                cache.set(base + way, new Block(cacheKey, data));
+                hands[set] = (way + 1) % CACHE_WAYS;
+                return;
+            }
+            b.used = false;
+        }
+    }
+
+    private Table open(int material) {
+        Path path = dir.resolve(name(material) + EXTENSION);
+        if (!Files.isRegularFile(path)) return MISSING;
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            long[] offsets = readHeader(channel);
+            return new Table(channel, offsets);
+        } catch (IOException e) {
+            System.err.println("Tabela de finais ilegível, ignorada: " + path + ": " + e.getMessage());
+            return MISSING;
+        }
+    }
+
+    private static byte[] readBlock(Table table, int block, Inflater inflater) throws IOException, DataFormatException {
+        long start = table.offsets[block];
+        ByteBuffer compressed = ByteBuffer.allocate((int) (table.offsets[block + 1] - start));
+        while (compressed.hasRemaining())
+            if (table.channel.read(compressed, start + compressed.position()) < 0)
+                throw new IOException("Arquivo truncado");
+        byte[] data = new byte[BLOCK_SIZE];
+        inflater.reset();
+        inflater.setInput(compressed.array());
+        inflater.inflate(data);
+        return data;
+    }
+
+    // Lê o cabeçalho e devolve as posições dos blocos (a última é o fim do arquivo)
+    static long[] readHeader(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(4 + 1 + MAX_PIECES + 8).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(head, 0);
+        head.flip();
+        if (head.remaining() < 5 || head.getInt() != MAGIC) throw new IOException("Não é uma tabela de finais");
+        int n = head.get();
+        int headerSize = 4 + 1 + n + 8;
+        head.position(5 + n);
+        if (head.getInt() != BLOCK_SIZE) throw new IOException("Tamanho de bloco diferente");
+        int blocks = head.getInt();
+        ByteBuffer table = ByteBuffer.allocate(8 * (blocks + 1)).order(ByteOrder.LITTLE_ENDIAN);
+        while (table.hasRemaining())
+            if (channel.read(table, headerSize + table.position()) < 0) throw new IOException("Arquivo truncado");
+        table.flip();
+        long[] offsets = new long[blocks + 1];
+        for (int i = 0; i <= blocks; i++) offsets[i] = table.getLong();
+        return offsets;
+    }
+
+    // Tabela inteira descomprimida (o gerador consulta as tabelas menores assim)
+    static byte[] readAll(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] offsets = readHeader(channel);
+            ByteBuffer compressed = ByteBuffer.allocate((int) (offsets[offsets.length - 1] - offsets[0]));
+            while (compressed.hasRemaining())
+                if (channel.read(compressed, offsets[0] + compressed.position()) < 0)
+                    throw new IOException("Arquivo truncado");
+            byte[] all = new byte[(offsets.length - 1) * BLOCK_SIZE];
+            Inflater inflater = new Inflater();
+            for (int b = 0; b < offsets.length - 1; b++) {
+                inflater.reset();
+                inflater.setInput(compressed.array(), (int) (offsets[b] - offsets[0]),
+                        (int) (offsets[b + 1] - offsets[b]));
+                inflater.inflate(all, b * BLOCK_SIZE, BLOCK_SIZE);
+            }
+            inflater.end();
+            return all;
+        } catch (DataFormatException e) {
+            throw new IOException("Bloco corrompido em " + path, e);
+        }
+    }
+
+    // Põe as peças na ordem da tabela: códigos crescentes, com o lado mais forte de brancas.
+    // Devolve true se as cores foram trocadas (o tabuleiro é espelhado na vertical)
+    static boolean canonicalize(int[] codes, int[] squares, int n) {
+        sort(codes, squares, n);
+        int whites = 0;
+        while (whites < n && codes[whites] < 6) whites++;
+        int blacks = n - whites;
+        boolean flip = blacks > whites;
+        if (blacks == whites) {
+            for (int i = 0; i < whites; i++) {
+                if (codes[i] == codes[whites + i] - 6) continue;
+                flip = codes[whites + i] - 6 < codes[i]; // Tipo menor = peça mais forte
+                break;
+            }
+        }
+        if (flip) {
+            for (int i = 0; i < n; i++) {
+                codes[i] = (codes[i] + 6) % 12;
+                squares[i] ^= 56;
+            }
+            sort(codes, squares, n);
+        }
+        return flip;
+    }
+
+    private static void sort(int[] codes, int[] squares, int n) {
+        for (int i = 1; i < n; i++) {
+            int c = codes[i], s = squares[i], j = i - 1;
+            while (j >= 0 && codes[j] > c) {
+                codes[j + 1] = codes[j];
+                squares[j + 1] = squares[j];
+                j--;
+            }
+            codes[j + 1] = c;
+            squares[j + 1] = s;
+        }
+    }
+
+    static int index(int[] squares, int n, int stm) {
+        int index = stm;
+        for (int i = 0; i < n; i++) index = index << 6 | squares[i];
+        return index;
+    }
+
+    // Identifica o material (códigos em ordem crescente) com um inteiro
+    static int materialKey(int[] codes, int n) {
+        int key = 0;
+        for (int i = 0; i < n; i++) key = key * 13 + codes[i] + 1;
+        return key;
+    }
+
+    static int[] codes(int materialKey) {
+        int n = 0;
+        for (int k = materialKey; k > 0; k /= 13) n++;
+        int[] codes = new int[n];
+        for (int i = n - 1, k = materialKey; i >= 0; i--, k /= 13) codes[i] = k % 13 - 1;
+        return codes;
+    }
+
+    // "KQKR" ↔ material
+    static String name(int materialKey) {
+        StringBuilder sb = new StringBuilder();
+        for (int code : codes(materialKey)) sb.append(PIECE_LETTERS.charAt(code % 6));
+        return sb.toString();
+    }
+
+    static int parseName(String name) {
+        int second = name.indexOf('K', 1);
+        if (!name.startsWith("K") || second < 0) throw new IllegalArgumentException("Material inválido: " + name);
+        int n = name.length();
+        if (n > MAX_PIECES) throw new IllegalArgumentException("Mais de " + MAX_PIECES + " peças: " + name);
+        int[] codes = new int[n], squares = new int[n];
+        for (int i = 0; i < n; i++) {
+            int type = PIECE_LETTERS.indexOf(name.charAt(i));
+            if (type < 0 || (type == 0 && i != 0 && i != second))
+                throw new IllegalArgumentException("Material inválido: " + name);
+            codes[i] = (i < second ? 0 : 6) + type;
+        }
+        canonicalize(codes, squares, n);
+        return materialKey(codes, n);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("generate")) {
+            String[] specs = args.length > 2 ? java.util.Arrays.copyOfRange(args, 2, args.length) : new String[]{"3"};
+            new TablebaseGenerator(Paths.get(args[1])).generate(specs);
+        } else if (args.length >= 3 && args[0].equals("probe")) {
+            Tablebase tb = new Tablebase(Paths.get(args[1]));
+            Position pos = Fen.parse(String.join(" ", java.util.Arrays.copyOfRange(args, 2, args.length)));
+            int score = tb.score(pos, 0);
+            if (score == NOT_FOUND) {
+                System.out.println("Posição fora das tabelas");
+            } else if (score == 0) {
+                System.out.println("Empate");
+            } else {
+                int plies = ChessAI.MATE - Math.abs(score);
+                System.out.println((score > 0 ? "Vitória" : "Derrota") + " de quem joga, mate em " + plies + " plies");
+                MoveList legal = new MoveList();
+                pos.generateLegal(legal);
+                int best = tb.bestMove(pos, legal);
+                if (best != Moves.NONE) System.out.println("Melhor lance: " + San.toString(pos, best));
+            }
+        } else {
+            System.err.println("Uso: java Tablebase generate pasta [3 | 4 | KQK ...] | probe pasta FEN");
+        }
+    }
+}
@@ -0,0 +1,404 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+// Gera as tabelas de finais por análise retrógrada. Para um material, todas as posições
+// (vez × casa de cada peça) são classificadas de uma vez: ilegais, mates, afogamentos, e os
+// lances que saem da tabela (capturas e promoções) são resolvidos nas tabelas menores, já
+// geradas. Depois, nível a nível (mate em 0, 1, 2... plies), os "deslances" de cada posição
+// resolvida marcam as anteriores: quem tem um lance para uma posição perdida ganha; quem só
+// tem lances para posições ganhas pelo adversário perde, contado lance a lance. O que não for
+// resolvido é empate.
+//
+// Usa um gerador de lances próprio sobre as casas das peças, bem mais rápido que montar uma
+// Position por índice; en passant e roques não existem nas tabelas.
+final class TablebaseGenerator {
+    private static final int ILLEGAL = 255;
+    private static final int BLOCKED = 255; // Contador de quem já não pode perder (tem empate ou vitória)
+    private static final int MAX_CODE = 254;
+
+    private final Path dir;
+    private final Map<Integer, byte[]> subtables = new HashMap<>(); // Tabelas menores, inteiras
+
+    // Tabela em geração: valor (0 = ainda sem resultado, d + 1, ILLEGAL), lances ainda não
+    // resolvidos e limite vindo dos lances para fora (menor vitória ou maior derrota, d + 1)
+    private int n;
+    private int[] codes;
+    private byte[] value, counter, bound;
+    private int maxCode;
+
+    // Posição sendo examinada
+    private final int[] squares = new int[Tablebase.MAX_PIECES];
+    private final long[] side = new long[2];
+    private long occ;
+    private int stm;
+    private boolean blocked;
+    private int inTable, winBound, lossBound;
+    private final int[] childCodes = new int[Tablebase.MAX_PIECES], childSquares = new int[Tablebase.MAX_PIECES];
+
+    TablebaseGenerator(Path dir) {
+        this.dir = dir;
+    }
+
+    // "3", "4" ou nomes de materiais; gera o que falta, dependências primeiro
+    void generate(String[] specs) throws IOException {
+        Set<Integer> wanted = new LinkedHashSet<>();
+        for (String spec : specs) {
+            if (spec.equals("3") || spec.equals("4")) {
+                for (int pieces = 3; pieces <= Integer.parseInt(spec); pieces++) wanted.addAll(allMaterials(pieces));
+            } else {
+                wanted.add(Tablebase.parseName(spec.toUpperCase()));
+            }
+        }
+        List<Integer> order = new ArrayList<>();
+        Set<Integer> seen = new LinkedHashSet<>();
+        for (int material : wanted) addWithDependencies(material, order, seen);
+        Files.createDirectories(dir);
+        for (int material : order) {
+            Path path = file(material);
+            if (Files.exists(path)) continue;
+            long start = System.nanoTime();
+            generate(Tablebase.codes(material));
+            long size = Files.size(path);
+            System.err.printf("%s: %d posições, mate mais longo em %d plies, %d KB, %.1f s%n",
+                    Tablebase.name(material), value.length, maxCode - 1, size / 1024,
+                    (System.nanoTime() - start) / 1e9);
+        }
+        value = counter = bound = null;
+    }
+
+    private Path file(int material) {
+        return dir.resolve(Tablebase.name(material) + Tablebase.EXTENSION);
+    }
+
+    // Materiais com "pieces" peças, cada um uma vez (o lado mais forte de brancas)
+    static List<Integer> allMaterials(int pieces) {
+        Set<Integer> all = new LinkedHashSet<>();
+        int others = pieces - 2;
+        int combinations = 1;
+        for (int i = 0; i < others; i++) combinations *= 10; // Tipo (Q..P) e cor de cada peça extra
+        for (int c = 0; c < combinations; c++) {
+            int[] codes = new int[pieces], squares = new int[pieces];
+            codes[0] = Position.KING;
+            codes[1] = 6 + Position.KING;
+            for (int i = 0, x = c; i < others; i++, x /= 10)
+                codes[2 + i] = (x % 10 < 5 ? 0 : 6) + 1 + x % 5;
+            Tablebase.canonicalize(codes, squares, pieces);
+            all.add(Tablebase.materialKey(codes, pieces));
+        }
+        return new ArrayList<>(all);
+    }
+
+    // Capturas levam a materiais com uma peça a menos; promoções, a materiais com um peão a menos
+    private void addWithDependencies(int material, List<Integer> order, Set<Integer> seen) {
+        if (!seen.add(material)) return;
+        int[] codes = Tablebase.codes(material);
+        int count = codes.length;
+        for (int i = 0; i < count; i++) {
+            int type = codes[i] % 6, color = codes[i] / 6;
+            if (type != Position.KING && count > 3)
+                addWithDependencies(reduced(codes, i, -1, 0), order, seen);
+            if (type == Position.PAWN)
+                for (int promo = Position.QUEEN; promo <= Position.KNIGHT; promo++)
+                    addWithDependencies(reduced(codes, -1, i, color * 6 + promo), order, seen);
+        }
+        order.add(material);
+    }
+
+    // Material sem a peça "removed" e com a peça "changed" trocada por "newCode"
+    private static int reduced(int[] codes, int removed, int changed, int newCode) {
+        int[] c = new int[codes.length], s = new int[codes.length];
+        int m = 0;
+        for (int i = 0; i < codes.length; i++)
+            if (i != removed) c[m++] = i == changed ? newCode : codes[i];
+        Tablebase.canonicalize(c, s, m);
+        return Tablebase.materialKey(c, m);
+    }
+
+    private void generate(int[] pieceCodes) throws IOException {
+        codes = pieceCodes;
+        n = codes.length;
+        int size = 2 << (6 * n);
+        value = new byte[size];
+        counter = new byte[size];
+        bound = new byte[size];
+        subtables.clear();
+        maxCode = 1;
+        for (int i = 0; i < size; i++) classify(i);
+
+        for (int level = 0; level + 1 <= maxCode; level++) {
+            int code = level + 1;
+            // Vitórias por lances para fora da tabela que chegam a este nível
+            for (int i = 0; i < size; i++)
+                if (value[i] == 0 && (counter[i] & 0xFF) == BLOCKED && (bound[i] & 0xFF) == code)
+                    value[i] = (byte) code;
+            for (int i = 0; i < size; i++)
+                if ((value[i] & 0xFF) == code) unmoves(i, level);
+        }
+        write(file(Tablebase.materialKey(codes, n)));
+    }
+
+    // Primeira passada: legalidade, mate/afogamento e lances que saem da tabela
+    private void classify(int index) {
+        stm = index >>> (6 * n);
+        decode(index);
+        if (Long.bitCount(occ) != n || !legal()) {
+            value[index] = (byte) ILLEGAL;
+            return;
+        }
+        blocked = false;
+        inTable = 0;
+        winBound = Integer.MAX_VALUE;
+        lossBound = 0;
+        int moves = generateMoves();
+        if (moves == 0) {
+            if (attacked(squares[kingIndex(stm)], stm ^ 1, occ, -1)) value[index] = 1; // Mate
+            else counter[index] = (byte) BLOCKED;                                       // Afogamento
+            return;
+        }
+        if (blocked) {
+            counter[index] = (byte) BLOCKED;
+            if (winBound != Integer.MAX_VALUE) setBound(index, winBound);
+        } else {
+            counter[index] = (byte) inTable;
+            setBound(index, lossBound);
+            if (inTable == 0) value[index] = (byte) lossBound; // Todos os lances saem perdendo
+        }
+    }
+
+    private void setBound(int index, int code) {
+        if (code > MAX_CODE) throw new IllegalStateException("Mate longo demais para a tabela");
+        bound[index] = (byte) code;
+        maxCode = Math.max(maxCode, code);
+    }
+
+    private void decode(int index) {
+        occ = side[0] = side[1] = 0;
+        for (int i = n - 1, x = index; i >= 0; i--, x >>>= 6) {
+            squares[i] = x & 63;
+            long b = 1L << squares[i];
+            occ |= b;
+            side[codes[i] / 6] |= b;
+        }
+    }
+
+    // Peões só nas fileiras 2 a 7, e o lado que não joga não pode estar em xeque
+    private boolean legal() {
+        for (int i = 0; i < n; i++)
+            if (codes[i] % 6 == Position.PAWN && (squares[i] < 8 || squares[i] >= 56)) return false;
+        return !attacked(squares[kingIndex(stm ^ 1)], stm, occ, -1);
+    }
+
+    private int kingIndex(int color) {
+        for (int i = 0; i < n; i++) if (codes[i] == color * 6 + Position.KING) return i;
+        throw new IllegalStateException();
+    }
+
+    // A casa é atacada por alguma peça da cor, sem contar a peça "skip" (capturada)?
+    private boolean attacked(int sq, int color, long occupancy, int skip) {
+        for (int i = 0; i < n; i++)
+            if (i != skip && codes[i] / 6 == color && (attacks(codes[i], squares[i], occupancy) & (1L << sq)) != 0)
+                return true;
+        return false;
+    }
+
+    private static long attacks(int code, int sq, long occupancy) {
+        switch (code % 6) {
+            case Position.KING:   return Bitboards.KING_ATTACKS[sq];
+            case Position.QUEEN:  return Bitboards.queenAttacks(sq, occupancy);
+            case Position.ROOK:   return Bitboards.rookAttacks(sq, occupancy);
+            case Position.BISHOP: return Bitboards.bishopAttacks(sq, occupancy);
+            case Position.KNIGHT: return Bitboards.KNIGHT_ATTACKS[sq];
+            default:              return Bitboards.PAWN_ATTACKS[code / 6][sq];
+        }
+    }
+
+    private int pieceAt(int sq) {
+        for (int i = 0; i < n; i++) if (squares[i] == sq) return i;
+        return -1;
+    }
+
+    // Lances legais de quem joga; os que ficam na tabela só são contados
+    private int generateMoves() {
+        int moves = 0;
+        for (int i = 0; i < n; i++) {
+            if (codes[i] / 6 != stm) continue;
+            int from = squares[i];
+            if (codes[i] % 6 == Position.PAWN) {
+                int forward = stm == Position.WHITE ? 8 : -8;
+                int to = from + forward;
+                if ((occ & (1L << to)) == 0) {
+                    moves += move(i, to, -1);
+                    int startRank = stm == Position.WHITE ? 1 : 6;
+                    if ((from >>> 3) == startRank && (occ & (1L << (to + forward))) == 0)
+                        moves += move(i, to + forward, -1);
+                }
+                for (long b = Bitboards.PAWN_ATTACKS[stm][from] & side[stm ^ 1]; b != 0; b &= b - 1) {
+                    int target = Long.numberOfTrailingZeros(b);
+                    moves += move(i, target, pieceAt(target));
+                }
+            } else {
+                for (long b = attacks(codes[i], from, occ) & ~side[stm]; b != 0; b &= b - 1) {
+                    int target = Long.numberOfTrailingZeros(b);
+                    moves += move(i, target, pieceAt(target));
+                }
+            }
+        }
+        return moves;
+    }
+
+    // Um lance da peça i para "to", capturando a peça "captured" (ou -1); devolve 1 se legal
+    private int move(int i, int to, int captured) {
+        int from = squares[i];
+        long after = occ ^ (1L << from) | (1L << to);
+        squares[i] = to;
+        boolean legal = !attacked(squares[kingIndex(stm)], stm ^ 1, after, captured);
+        squares[i] = from;
+        if (!legal) return 0;
+        boolean promotion = codes[i] % 6 == Position.PAWN && (to < 8 || to >= 56);
+        if (promotion) {
+            for (int promo = Position.QUEEN; promo <= Position.KNIGHT; promo++)
+                outside(child(i, to, captured, stm * 6 + promo));
+        } else if (captured >= 0) {
+            outside(child(i, to, captured, codes[i]));
+        } else {
+            inTable++;
+        }
+        return 1;
+    }
+
+    // Resultado (0 ou d + 1, para quem joga nela) da posição depois de um lance que sai da tabela
+    private int child(int i, int to, int captured, int newCode) {
+        int m = 0;
+        for (int j = 0; j < n; j++) {
+            if (j == captured) continue;
+            childCodes[m] = j == i ? newCode : codes[j];
+            childSquares[m] = j == i ? to : squares[j];
+            m++;
+        }
+        if (m == 2) return 0; // Só os reis
+        int childStm = stm ^ 1;
+        if (Tablebase.canonicalize(childCodes, childSquares, m)) childStm ^= 1;
+        int material = Tablebase.materialKey(childCodes, m);
+        byte[] table = subtables.computeIfAbsent(material, this::load);
+        return table[Tablebase.index(childSquares, m, childStm)] & 0xFF;
+    }
+
+    private byte[] load(int material) {
+        try {
+            return Tablebase.readAll(file(material));
+        } catch (IOException e) {
+            throw new IllegalStateException("Falta a tabela " + Tablebase.name(material), e);
+        }
+    }
+
+    private void outside(int childValue) {
+        if (childValue == 0) {
+            blocked = true; // Empate garantido: não perde mais
+        } else if (((childValue - 1) & 1) == 0) {
+            blocked = true; // Adversário perde: vitória em d + 1
+            winBound = Math.min(winBound, childValue + 1);
+        } else {
+            lossBound = Math.max(lossBound, childValue + 1);
+        }
+    }
+
+    // A posição "index" (resultado em "level" plies) foi resolvida: examina as anteriores
+    private void unmoves(int index, int level) {
+        stm = index >>> (6 * n);
+        decode(index);
+        int mover = stm ^ 1; // Quem jogou o último lance
+        int stmBit = 1 << (6 * n);
+        for (int i = 0; i < n; i++) {
+            if (codes[i] / 6 != mover) continue;
+            int sq = squares[i], shift = 6 * (n - 1 - i);
+            int base = (index ^ stmBit) & ~(63 << shift);
+            long from;
+            if (codes[i] % 6 == Position.PAWN) {
+                int back = mover == Position.WHITE ? -8 : 8;
+                from = 0;
+                int origin = sq + back;
+                if (origin >= 8 && origin < 56 && (occ & (1L << origin)) == 0) {
+                    from |= 1L << origin;
+                    int doubleRank = mover == Position.WHITE ? 3 : 4;
+                    if ((sq >>> 3) == doubleRank && (occ & (1L << (origin + back))) == 0)
+                        from |= 1L << (origin + back);
+                }
+            } else {
+                from = attacks(codes[i], sq, occ) & ~occ;
+            }
+            for (; from != 0; from &= from - 1)
+                predecessor(base | Long.numberOfTrailingZeros(from) << shift, level);
+        }
+    }
+
+    private void predecessor(int index, int level) {
+        if (value[index] != 0) return; // Ilegal ou já resolvida
+        if ((level & 1) == 0) {
+            // Há um lance para uma posição perdida do adversário
+            setValue(index, level + 2);
+        } else {
+            int left = counter[index] & 0xFF;
+            if (left == BLOCKED) return;
+            counter[index] = (byte) --left;
+            if (left == 0) setValue(index, Math.max(level + 2, bound[index] & 0xFF));
+        }
+    }
+
+    private void setValue(int index, int code) {
+        if (code > MAX_CODE) throw new IllegalStateException("Mate longo demais para a tabela");
+        value[index] = (byte) code;
+        maxCode = Math.max(maxCode, code);
+    }
+
+    // Grava em blocos comprimidos; posições ilegais viram 0, o que também ajuda a compressão
+    private void write(Path path) throws IOException {
+        int blocks = (value.length + Tablebase.BLOCK_SIZE - 1) / Tablebase.BLOCK_SIZE;
+        int headerSize = 4 + 1 + n + 8;
+        long[] offsets = new long[blocks + 1];
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        byte[] block = new byte[Tablebase.BLOCK_SIZE];
+        byte[] compressed = new byte[Tablebase.BLOCK_SIZE * 2];
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = headerSize + 8L * (blocks + 1);
+            for (int b = 0; b < blocks; b++) {
+                for (int j = 0; j < Tablebase.BLOCK_SIZE; j++) {
+                    int v = value[b * Tablebase.BLOCK_SIZE + j] & 0xFF;
+                    block[j] = (byte) (v == ILLEGAL ? 0 : v);
+                }
+                deflater.reset();
+                deflater.setInput(block);
+                deflater.finish();
+                int length = deflater.deflate(compressed);
+                offsets[b] = position;
+                ByteBuffer data = ByteBuffer.wrap(compressed, 0, length);
+                while (data.hasRemaining()) position += channel.write(data, position);
+            }
+            offsets[blocks] = position;
+
+            ByteBuffer header = ByteBuffer.allocate(headerSize + 8 * (blocks + 1)).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(Tablebase.MAGIC).put((byte) n);
+            for (int code : codes) header.put((byte) code);
+            header.putInt(Tablebase.BLOCK_SIZE).putInt(blocks);
+            for (long offset : offsets) header.putLong(offset);
+            header.flip();
+            while (header.hasRemaining()) channel.write(header, header.position());
+        } finally {
+            deflater.end();
+        }
+        Files.move(temp, path, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,63 @@
+// Controle de tempo de uma partida: tempo base por jogador, incremento por lance e, se houver,
+// número de lances por período (ao fim de cada período o tempo base é somado de novo).
+// Sem incremento e sem períodos é morte súbita. Também decide quanto a IA pensa em cada lance.
+final class TimeControl {
+    static final long MIN_THINK_MILLIS = 10;
+    static final long OVERHEAD_MILLIS = 50;   // Folga para a thread acordar e o lance chegar
+    private static final int EXPECTED_MOVES = 30; // Lances que ainda faltam, quando não se sabe
+
+    final long baseMillis;
+    final long incrementMillis;
+    final int movesPerPeriod; // 0 = o tempo base vale para a partida inteira
+
+    TimeControl(long baseMillis, long incrementMillis, int movesPerPeriod) {
+        if (baseMillis <= 0 || incrementMillis < 0 || movesPerPeriod < 0)
+            throw new IllegalArgumentException("Controle de tempo inválido");
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+        this.movesPerPeriod = movesPerPeriod;
+    }
+
+    static TimeControl suddenDeath(long baseMillis) {
+        return new TimeControl(baseMillis, 0, 0);
+    }
+
+    static TimeControl withIncrement(long baseMillis, long incrementMillis) {
+        return new TimeControl(baseMillis, incrementMillis, 0);
+    }
+
+    // Formato "base+incremento" em segundos, com "lances/" opcional na frente: "300+2", "40/120", "0.5+0.01"
+    static TimeControl parse(String text) {
+        try {
+            int moves = 0;
+            String rest = text.trim();
+            int slash = rest.indexOf('/');
+            if (slash >= 0) {
+                moves = Integer.parseInt(rest.substring(0, slash));
+                rest = rest.substring(slash + 1);
+            }
+            int plus = rest.indexOf('+');
+            double base = Double.parseDouble(plus >= 0 ? rest.substring(0, plus) : rest);
+            double inc = plus >= 0 ? Double.parseDouble(rest.substring(plus + 1)) : 0;
+            return new TimeControl(Math.round(base * 1000), Math.round(inc * 1000), moves);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Controle de tempo inválido: " + text, e);
+        }
+    }
+
+    // Tempo para pensar no próximo lance, dado o que resta no relógio.
+    // movesToGo = lances até o próximo controle (0 = desconhecido/morte súbita)
+    static long allocate(long remainingMillis, long incrementMillis, int movesToGo) {
+        int moves = movesToGo > 0 ? Math.min(movesToGo, EXPECTED_MOVES) : EXPECTED_MOVES;
+        long budget = remainingMillis / moves + incrementMillis * 3 / 4;
+        // Nunca mais da metade do relógio, a não ser no último lance do período
+        long cap = movesToGo == 1 ? remainingMillis - OVERHEAD_MILLIS : remainingMillis / 2;
+        return Math.max(MIN_THINK_MILLIS, Math.min(budget, cap));
+    }
+
+    @Override
+    public String toString() {
+        String s = baseMillis / 1000.0 + "+" + incrementMillis / 1000.0;
+        return movesPerPeriod > 0 ? movesPerPeriod + "/" + s : s;
+    }
+}
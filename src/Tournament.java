@@ -0,0 +1,305 @@
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Torneio sem interface: duas configurações da IA (A e B) jogam muitas partidas entre si.
+// Cada partida roda numa virtual thread; as buscas disputam um conjunto limitado de instâncias
+// de ChessAI por configuração (uma por núcleo, por padrão), então milhares de partidas podem
+// estar abertas ao mesmo tempo sem sobrecarregar a máquina. O relógio de cada lado só corre
+// enquanto a IA dele está de fato pensando.
+//
+// Cada partida terminada vira uma linha CSV na saída, na hora. Na saída de erro sai o andamento:
+// partidas/s, placar, Elo de A contra B com intervalo de 95% e o SPRT.
+//
+// Uso: java Tournament [opções]
+//   --games N            partidas (padrão 100; pares com a mesma abertura e cores trocadas)
+//   --tc 10+0.1          controle de tempo por partida, em segundos (veja TimeControl.parse)
+//   --concurrency N      buscas simultâneas por configuração (padrão: núcleos)
+//   --a nome:opções      configuração A, ex.: "novo:hash=4,depth=8,threads=1"
+//   --b nome:opções      configuração B
+//   --openings arquivo   uma abertura por linha: FEN ou lances em coordenadas ("e2e4 e7e5")
+//   --out arquivo        resultados em CSV (padrão: saída padrão)
+//   --sprt elo0,elo1     para assim que o SPRT decidir (alfa = beta = 0,05)
+//   --metrics arquivo    contadores das buscas de cada configuração ("A.search.nodes 123..."),
+//                        regravado a cada segundo
+public final class Tournament {
+    static final int MAX_PLIES = 600; // Partidas mais longas são declaradas empate
+
+    // Aberturas curtas e equilibradas, usadas quando não há arquivo
+    static final String[] DEFAULT_OPENINGS = {
+            "e2e4 e7e5 g1f3 b8c6",
+            "e2e4 c7c5 g1f3 d7d6",
+            "e2e4 e7e6 d2d4 d7d5",
+            "e2e4 c7c6 d2d4 d7d5",
+            "d2d4 d7d5 c2c4 e7e6",
+            "d2d4 g8f6 c2c4 g7g6",
+            "d2d4 g8f6 c2c4 e7e6",
+            "c2c4 e7e5 b1c3 g8f6",
+            "g1f3 d7d5 g2g3 g8f6",
+            "e2e4 e7e5 f1c4 g8f6",
+    };
+
+    // Uma configuração da IA e suas instâncias disponíveis
+    static final class Player {
+        final String name;
+        final int hashMb, threads, depth;
+        final BlockingQueue<ChessAI> engines;
+
+        Player(String name, int hashMb, int threads, int depth, int instances) {
+            this.name = name;
+            this.hashMb = hashMb;
+            this.threads = threads;
+            this.depth = depth;
+            engines = new ArrayBlockingQueue<>(instances);
+            for (int i = 0; i < instances; i++) {
+                ChessAI ai = new ChessAI(new TranspositionTable(hashMb));
+                ai.setThreads(threads);
+                engines.add(ai);
+            }
+        }
+
+        // "nome:hash=4,threads=1,depth=8" (tudo depois do nome é opcional)
+        static Player parse(String spec, int instances) {
+            String[] parts = spec.split(":", 2);
+            int hash = 1, threads = 1, depth = ChessAI.MAX_PLY;
+            if (parts.length > 1 && !parts[1].isEmpty()) {
+                for (String option : parts[1].split(",")) {
+                    String[] kv = option.split("=", 2);
+                    if (kv.length != 2) throw new IllegalArgumentException("Opção inválida: " + option);
+                    int value = Integer.parseInt(kv[1].trim());
+                    switch (kv[0].trim()) {
+                        case "hash": hash = value; break;
+                        case "threads": threads = value; break;
+                        case "depth": depth = value; break;
+                        default: throw new IllegalArgumentException("Opção desconhecida: " + kv[0]);
+                    }
+                }
+            }
+            return new Player(parts[0], hash, threads, depth, instances);
+        }
+
+        // Todas as instâncias informam no mesmo destino, com o nome da configuração como prefixo
+        void setMetrics(Metrics metrics) {
+            Metrics prefixed = metrics.withPrefix(name + ".");
+            for (ChessAI ai : engines) ai.setMetrics(prefixed);
+        }
+
+        void shutdown() {
+            for (ChessAI ai : engines) ai.shutdown();
+        }
+    }
+
+    private final Player a, b;
+    private final TimeControl timeControl;
+    private final List<String> openings;
+    private final PrintStream out;
+    private final MatchStats stats = new MatchStats();
+    private final AtomicInteger finished = new AtomicInteger();
+    private final double elo0, elo1;
+    private final boolean sprt;
+    private volatile boolean decided; // SPRT já decidiu: partidas em andamento são descartadas
+    private MetricsRegistry metrics;  // Contadores das buscas (null = não exportar)
+    private Path metricsFile;
+
+    Tournament(Player a, Player b, TimeControl timeControl, List<String> openings, PrintStream out,
+               double elo0, double elo1, boolean sprt) {
+        this.a = a;
+        this.b = b;
+        this.timeControl = timeControl;
+        this.openings = openings;
+        this.out = out;
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.sprt = sprt;
+    }
+
+    // Exporta os contadores das buscas de A e B para o arquivo, a cada segundo e no fim
+    void exportMetrics(Path file) {
+        metrics = new MetricsRegistry();
+        metricsFile = file;
+        a.setMetrics(metrics);
+        b.setMetrics(metrics);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = 100;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        String tc = "10+0.1", specA = "A", specB = "B", openingsFile = null, outFile = null, metricsFile = null;
+        double elo0 = 0, elo1 = 5;
+        boolean sprt = false;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) throw new IllegalArgumentException("Falta o valor de " + args[i]);
+            switch (args[i]) {
+                case "--games": games = Integer.parseInt(value); break;
+                case "--tc": tc = value; break;
+                case "--concurrency": concurrency = Integer.parseInt(value); break;
+                case "--a": specA = value; break;
+                case "--b": specB = value; break;
+                case "--openings": openingsFile = value; break;
+                case "--out": outFile = value; break;
+                case "--metrics": metricsFile = value; break;
+                case "--sprt":
+                    String[] bounds = value.split(",");
+                    elo0 = Double.parseDouble(bounds[0]);
+                    elo1 = Double.parseDouble(bounds[1]);
+                    sprt = true;
+                    break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+            i++;
+        }
+
+        List<String> openings = new ArrayList<>();
+        if (openingsFile != null) {
+            for (String line : Files.readAllLines(Paths.get(openingsFile), StandardCharsets.UTF_8))
+                if (!line.isBlank() && !line.startsWith("#")) openings.add(line.trim());
+        } else {
+            openings.addAll(List.of(DEFAULT_OPENINGS));
+        }
+        for (String opening : openings) startPosition(opening); // Falha logo se alguma for inválida
+
+        Player a = Player.parse(specA, concurrency), b = Player.parse(specB, concurrency);
+        PrintStream out = outFile != null
+                ? new PrintStream(new FileOutputStream(outFile), false, StandardCharsets.UTF_8)
+                : System.out;
+        Tournament t = new Tournament(a, b, TimeControl.parse(tc), openings, out, elo0, elo1, sprt);
+        if (metricsFile != null) t.exportMetrics(Paths.get(metricsFile));
+        try {
+            t.run(games);
+        } finally {
+            a.shutdown();
+            b.shutdown();
+            if (out != System.out) out.close();
+        }
+    }
+
+    // Joga todas as partidas e mostra o andamento a cada segundo
+    void run(int games) throws InterruptedException {
+        System.err.printf("%s contra %s, %d partidas, %s%n", a.name, b.name, games, timeControl);
+        out.println("game,white,black,result,reason,plies,opening");
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < games; i++) {
+            int game = i;
+            executor.submit(() -> playAndRecord(game));
+        }
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.SECONDS)) progress(start);
+        progress(start);
+        if (sprt) {
+            double llr = stats.llr(elo0, elo1);
+            String verdict = llr >= MatchStats.upperBound(0.05, 0.05) ? "H1 aceita (" + a.name + " mais forte)"
+                    : llr <= MatchStats.lowerBound(0.05, 0.05) ? "H0 aceita" : "inconclusivo";
+            System.err.println("SPRT: " + verdict);
+        }
+    }
+
+    private void progress(long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int done = finished.get();
+        String line = String.format("%d partidas  %.2f partidas/s  %s", done, done / seconds, stats.summary());
+        if (sprt) line += String.format("  LLR %.2f [%.2f, %.2f]", stats.llr(elo0, elo1),
+                MatchStats.lowerBound(0.05, 0.05), MatchStats.upperBound(0.05, 0.05));
+        System.err.println(line);
+        if (metrics != null) {
+            try {
+                metrics.writeTo(metricsFile);
+            } catch (IOException e) {
+                System.err.println("Falha ao gravar as métricas: " + e.getMessage());
+            }
+        }
+    }
+
+    // Pares de partidas usam a mesma abertura; A tem as brancas nas partidas pares
+    private void playAndRecord(int game) {
+        try {
+            String opening = openings.get((game / 2) % openings.size());
+            boolean aIsWhite = game % 2 == 0;
+            Player white = aIsWhite ? a : b, black = aIsWhite ? b : a;
+            Result result = play(white, black, startPosition(opening));
+            if (result == null) return; // Torneio encerrado pelo SPRT
+            stats.add(aIsWhite ? result.whiteScore : 1 - result.whiteScore);
+            finished.incrementAndGet();
+            synchronized (out) {
+                out.printf("%d,%s,%s,%s,%s,%d,%s%n", game + 1, white.name, black.name,
+                        result.whiteScore == 1 ? "1-0" : result.whiteScore == 0 ? "0-1" : "1/2-1/2",
+                        result.reason, result.plies, opening);
+                out.flush();
+            }
+            if (sprt) {
+                double llr = stats.llr(elo0, elo1);
+                if (llr >= MatchStats.upperBound(0.05, 0.05) || llr <= MatchStats.lowerBound(0.05, 0.05))
+                    decided = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Resultado de uma partida, do ponto de vista das brancas
+    static final class Result {
+        final double whiteScore;
+        final String reason;
+        final int plies;
+
+        Result(double whiteScore, String reason, int plies) {
+            this.whiteScore = whiteScore;
+            this.reason = reason;
+            this.plies = plies;
+        }
+    }
+
+    private Result play(Player white, Player black, Position pos) throws InterruptedException {
+        GameClock clock = new GameClock(timeControl);
+        MoveList root = new MoveList();
+        for (int plies = 0; ; plies++) {
+            if (decided) return null;
+            PieceColor turn = pos.getTurn();
+            double moverScore = turn == PieceColor.WHITE ? 1 : 0;
+            GameStatus status = pos.status();
+            if (status == GameStatus.CHECKMATE) return new Result(1 - moverScore, "checkmate", plies);
+            if (status.isDraw()) return new Result(0.5, status.name().toLowerCase(), plies);
+            if (plies >= MAX_PLIES) return new Result(0.5, "adjudication", plies);
+
+            Player player = turn == PieceColor.WHITE ? white : black;
+            ChessAI ai = player.engines.take();
+            int move;
+            try {
+                clock.start(turn);
+                move = ai.search(pos, clock.thinkTime(turn), player.depth, root);
+            } finally {
+                player.engines.put(ai);
+            }
+            if (!clock.stop()) return new Result(1 - moverScore, "time", plies);
+            pos.makeMove(move);
+        }
+    }
+
+    // Abertura em FEN ou como lances em coordenadas a partir da posição inicial
+    static Position startPosition(String opening) {
+        if (opening.indexOf('/') >= 0) return Fen.parse(opening);
+        Position pos = Position.initial();
+        for (String text : opening.split("\\s+")) {
+            if (text.isEmpty()) continue;
+            int move = Moves.parse(pos, text);
+            if (move == Moves.NONE) throw new IllegalArgumentException("Lance ilegal na abertura: " + text);
+            pos.makeMove(move);
+        }
+        return pos;
+    }
+}
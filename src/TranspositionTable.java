@@ -0,0 +1,154 @@
+// Tabela de transposição de tamanho fixo (em MB), compartilhável entre várias threads de busca.
+// Cada entrada ocupa dois longs: (chave XOR dados) e dados. Sem locks: uma leitura que pegar
+// uma escrita pela metade não confere com a chave e é simplesmente descartada.
+// As entradas ficam em grupos de 4 (64 bytes, uma linha de cache) e a política de substituição
+// decide qual delas sai quando o grupo está cheio.
+final class TranspositionTable {
+    // Tipo do limite guardado junto com a pontuação
+    static final int BOUND_NONE = 0, BOUND_UPPER = 1, BOUND_LOWER = 2, BOUND_EXACT = 3;
+
+    enum ReplacementPolicy {
+        ALWAYS,          // Sempre substitui a entrada escolhida pela chave
+        DEPTH_PREFERRED, // Substitui a entrada de menor profundidade
+        AGE_AND_DEPTH    // Prefere entradas de buscas antigas, depois as mais rasas
+    }
+
+    private static final int BUCKET = 4;
+    private static final int ENTRY_BYTES = 16;
+    private static final long MAX_BUCKETS = 1L << 27; // 8 GB: limite de tamanho de um long[]
+
+    private volatile long[] table;
+    private final ReplacementPolicy policy;
+    private volatile int age;
+
+    TranspositionTable(int megabytes) {
+        this(megabytes, ReplacementPolicy.AGE_AND_DEPTH);
+    }
+
+    TranspositionTable(int megabytes, ReplacementPolicy policy) {
+        this.policy = policy;
+        resize(megabytes);
+    }
+
+    // Realoca a tabela (apaga o conteúdo); o número de grupos é arredondado para potência de 2
+    synchronized void resize(int megabytes) {
+        long entries = Math.max(BUCKET, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        long buckets = Math.min(MAX_BUCKETS, Long.highestOneBit(entries / BUCKET));
+        table = new long[(int) (buckets * BUCKET * 2)];
+        age = 0;
+    }
+
+    synchronized void clear() {
+        java.util.Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    int sizeMegabytes() {
+        return (int) ((long) table.length * 8 / (1024 * 1024));
+    }
+
+    // Chamado no início de cada busca: entradas antigas passam a ser substituídas primeiro
+    void newSearch() {
+        age = (age + 1) & 63;
+    }
+
+    // Procura a chave; devolve os dados empacotados (veja os métodos estáticos abaixo) ou 0
+    long probe(long key) {
+        long[] t = table;
+        int base = bucketIndex(key, t);
+        for (int i = 0; i < BUCKET; i++) {
+            int idx = base + i * 2;
+            long data = t[idx + 1];
+            if ((t[idx] ^ data) == key && data != 0) return data;
+        }
+        return 0L;
+    }
+
+    void store(long key, int move, int score, int depth, int bound) {
+        long[] t = table;
+        int base = bucketIndex(key, t);
+        int currentAge = age;
+        int victim = base;
+        int victimRank = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET; i++) {
+            int idx = base + i * 2;
+            long data = t[idx + 1];
+            if (data == 0 || (t[idx] ^ data) == key) {
+                // Mesma posição (ou vaga livre): mantém o lance antigo se o novo não tiver um
+                if (move == Moves.NONE && data != 0) move = move(data);
+                victim = idx;
+                break;
+            }
+            int rank = rank(data, i, currentAge);
+            if (rank < victimRank) {
+                victimRank = rank;
+                victim = idx;
+            }
+        }
+        long data = pack(move, score, depth, bound, currentAge);
+        t[victim] = key ^ data;
+        t[victim + 1] = data;
+    }
+
+    // Quanto menor, melhor candidata a sair do grupo
+    private int rank(long data, int slot, int currentAge) {
+        switch (policy) {
+            case ALWAYS:
+                return slot;
+            case DEPTH_PREFERRED:
+                return depth(data);
+            default:
+                int stale = age(data) != currentAge ? 0 : 256;
+                return stale + depth(data);
+        }
+    }
+
+    // Primeiro long do grupo da chave (usa o array recebido, mesmo se houver um resize no meio)
+    private static int bucketIndex(long key, long[] t) {
+        int mask = t.length / (BUCKET * 2) - 1;
+        return ((int) (key ^ (key >>> 32)) & mask) * BUCKET * 2;
+    }
+
+    // Permilagem de entradas usadas na busca atual (amostra das primeiras 1000 entradas)
+    int hashfull() {
+        long[] t = table;
+        int used = 0, sampled = 0, currentAge = age;
+        for (int b = 0; b < 250 && b * BUCKET * 2 < t.length; b++) {
+            for (int i = 0; i < BUCKET; i++) {
+                long data = t[b * BUCKET * 2 + i * 2 + 1];
+                if (data != 0 && age(data) == currentAge) used++;
+                sampled++;
+            }
+        }
+        return sampled == 0 ? 0 : used * 1000 / sampled;
+    }
+
+    // Dados: lance (20 bits), pontuação (16 bits com sinal), profundidade (8), limite (2), idade (6)
+    private static long pack(int move, int score, int depth, int bound, int age) {
+        return (move & 0xFFFFFL)
+                | ((score & 0xFFFFL) << 20)
+                | ((long) (Math.max(0, Math.min(255, depth))) << 36)
+                | ((long) bound << 44)
+                | ((long) age << 46);
+    }
+
+    static int move(long data) {
+        return (int) (data & 0xFFFFF);
+    }
+
+    static int score(long data) {
+        return (short) (data >>> 20);
+    }
+
+    static int depth(long data) {
+        return (int) (data >>> 36) & 0xFF;
+    }
+
+    static int bound(long data) {
+        return (int) (data >>> 44) & 3;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> 46) & 63;
+    }
+}
@@ -0,0 +1,281 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Modo console no protocolo UCI, para rodar a IA sem interface, atrás de GUIs e ferramentas de
+// torneio (cutechess-cli, fastchess...). Entrada padrão: comandos; saída padrão: respostas.
+//
+// A thread principal só lê e interpreta comandos; a busca roda numa thread própria, então
+// "stop", "ponderhit" e "isready" são atendidos com ela em andamento. A cada iteração sai uma
+// linha "info" (profundidade, pontuação, nós, nós/s, variação principal).
+//
+// Comandos: uci, isready, ucinewgame, position (startpos | fen ...) [moves ...],
+//   go [ponder] [infinite] [wtime/btime/winc/binc/movestogo N] [movetime N] [depth N] [nodes N],
+//   stop, ponderhit, setoption name Hash|Threads|Ponder|Clear Hash [value X], quit.
+//
+// Uso: java Uci   (ou java Main uci)
+public final class Uci {
+    static final String NAME = "Xadrez em Java";
+    static final int MAX_HASH_MB = 65536;
+    static final int MAX_THREADS = 256;
+
+    private final ChessAI ai = new ChessAI();
+    private final PrintStream out;
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Uci-search");
+        t.setDaemon(true); // "quit" não espera por ela
+        return t;
+    });
+    private final MoveList rootMoves = new MoveList(); // Usado só pela thread da busca
+    private final MoveList pv = new MoveList();
+    private Position position = Position.initial();
+    private Position searching;      // Posição da busca em andamento (para a variação principal)
+    private Future<?> search;
+    private boolean holdBestMove;    // go infinite / go ponder: bestmove só depois de stop ou ponderhit
+    private long ponderMillis;       // Prazo a usar quando chegar o ponderhit
+
+    Uci(PrintStream out) {
+        this.out = out;
+        ai.setInfoListener(this::sendInfo);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Uci uci = new Uci(new PrintStream(System.out, false, StandardCharsets.UTF_8));
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        for (String line; (line = in.readLine()) != null; ) {
+            if (!uci.execute(line.trim())) break;
+        }
+        uci.quit();
+    }
+
+    // Um comando; devolve false em "quit"
+    boolean execute(String line) {
+        String[] tokens = line.split("\\s+");
+        try {
+            switch (tokens[0]) {
+                case "uci":
+                    send("id name " + NAME);
+                    send("id author Felipe");
+                    send("option name Hash type spin default " + ChessAI.DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+                    send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                    send("option name Ponder type check default false");
+                    send("option name Clear Hash type button");
+                    send("uciok");
+                    break;
+                case "isready": send("readyok"); break;
+                case "ucinewgame":
+                    stopAndWait();
+                    ai.getTranspositionTable().clear();
+                    position = Position.initial();
+                    break;
+                case "position": setPosition(tokens); break;
+                case "go": go(tokens); break;
+                case "stop": stopAndWait(); break;
+                case "ponderhit": ponderHit(); break;
+                case "setoption": setOption(line); break;
+                case "quit": return false;
+                case "": case "debug": case "register": break;
+                default: send("info string comando desconhecido: " + tokens[0]);
+            }
+        } catch (RuntimeException e) {
+            // Entrada malformada não derruba o processo: a GUI vê o motivo e segue
+            send("info string erro em \"" + line + "\": " + e.getMessage());
+        }
+        return true;
+    }
+
+    // position startpos [moves e2e4 ...] | position fen <6 campos> [moves ...]
+    private void setPosition(String[] tokens) {
+        int i = 1;
+        Position pos;
+        if (tokens.length > 1 && tokens[1].equals("startpos")) {
+            pos = Position.initial();
+            i = 2;
+        } else if (tokens.length > 1 && tokens[1].equals("fen")) {
+            StringBuilder fen = new StringBuilder();
+            for (i = 2; i < tokens.length && !tokens[i].equals("moves"); i++) fen.append(tokens[i]).append(' ');
+            pos = Fen.parse(fen.toString().trim());
+        } else {
+            throw new IllegalArgumentException("esperado startpos ou fen");
+        }
+        if (i < tokens.length && tokens[i].equals("moves")) {
+            for (i++; i < tokens.length; i++) {
+                int move = Moves.parse(pos, tokens[i]);
+                if (move == Moves.NONE) throw new IllegalArgumentException("lance ilegal " + tokens[i]);
+                pos.makeMove(move);
+            }
+        }
+        position = pos; // A busca em andamento tem a própria cópia
+    }
+
+    private void go(String[] tokens) {
+        stopAndWait(); // A GUI deveria ter mandado stop; por via das dúvidas
+        long wtime = -1, btime = -1, winc = 0, binc = 0, movetime = -1, nodes = Long.MAX_VALUE;
+        int movestogo = 0, depth = ChessAI.MAX_PLY;
+        boolean ponder = false, infinite = false;
+        for (int i = 1; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case "ponder": ponder = true; break;
+                case "infinite": infinite = true; break;
+                case "wtime": wtime = Long.parseLong(tokens[++i]); break;
+                case "btime": btime = Long.parseLong(tokens[++i]); break;
+                case "winc": winc = Long.parseLong(tokens[++i]); break;
+                case "binc": binc = Long.parseLong(tokens[++i]); break;
+                case "movestogo": movestogo = Integer.parseInt(tokens[++i]); break;
+                case "movetime": movetime = Long.parseLong(tokens[++i]); break;
+                case "depth": depth = Integer.parseInt(tokens[++i]); break;
+                case "nodes": nodes = Long.parseLong(tokens[++i]); break;
+                case "mate": depth = 2 * Integer.parseInt(tokens[++i]) - 1; break; // Mate em N = 2N-1 plies
+                default: break; // searchmoves e afins: ignorados
+            }
+        }
+
+        // Prazo: movetime fixo, ou a parte do relógio que o TimeControl daria; sem nada, até o stop
+        boolean white = position.getTurn() == PieceColor.WHITE;
+        long remaining = white ? wtime : btime, increment = white ? winc : binc;
+        long thinkMillis = movetime >= 0 ? Math.max(TimeControl.MIN_THINK_MILLIS, movetime - TimeControl.OVERHEAD_MILLIS)
+                : remaining >= 0 ? TimeControl.allocate(remaining, increment, movestogo)
+                : ChessAI.INFINITE;
+        synchronized (this) {
+            holdBestMove = ponder || infinite;
+            ponderMillis = thinkMillis;
+        }
+        Position pos = position.copy();
+        int depthLimit = Math.max(1, depth);
+        long nodeLimit = nodes;
+        long budget = ponder ? ChessAI.INFINITE : thinkMillis;
+        searching = pos;
+        search = searchThread.submit(() -> runSearch(pos, budget, depthLimit, nodeLimit));
+    }
+
+    // Na thread da busca
+    private void runSearch(Position pos, long thinkMillis, int depth, long nodes) {
+        int best;
+        try {
+            best = ai.search(pos, thinkMillis, depth, nodes, rootMoves);
+        } catch (RuntimeException e) {
+            send("info string erro na busca: " + e);
+            best = Moves.NONE;
+        }
+        // Em modo infinito ou ponder o protocolo só aceita bestmove depois de stop/ponderhit
+        synchronized (this) {
+            while (holdBestMove) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (best == Moves.NONE) {
+            send("bestmove 0000");
+            return;
+        }
+        ai.principalVariation(pos, best, 2, pv);
+        send("bestmove " + Moves.toString(best) + (pv.size() > 1 ? " ponder " + Moves.toString(pv.get(1)) : ""));
+    }
+
+    // O adversário jogou o lance esperado: a busca continua, agora com o prazo do "go ponder"
+    private void ponderHit() {
+        Future<?> running = search;
+        synchronized (this) {
+            if (running == null || running.isDone()) return;
+            holdBestMove = false;
+            notifyAll();
+        }
+        if (ponderMillis == ChessAI.INFINITE) return; // "go ponder infinite": segue até o stop
+        ai.ponderHit(ponderMillis);
+    }
+
+    // Para a busca em andamento e espera o bestmove sair
+    private void stopAndWait() {
+        Future<?> running = search;
+        if (running == null) return;
+        synchronized (this) {
+            holdBestMove = false;
+            notifyAll();
+        }
+        // Um stop que chegue antes de a busca começar seria apagado por ela: insiste até terminar
+        while (!running.isDone()) {
+            ai.stop();
+            try {
+                running.get(1, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignored) {
+                // Ainda rodando
+            } catch (Exception e) {
+                break;
+            }
+        }
+        search = null;
+    }
+
+    // setoption name <nome com espaços> [value <valor>]
+    private void setOption(String line) {
+        int nameAt = line.indexOf(" name ");
+        if (nameAt < 0) throw new IllegalArgumentException("falta o nome da opção");
+        int valueAt = line.indexOf(" value ", nameAt);
+        String name = (valueAt < 0 ? line.substring(nameAt + 6) : line.substring(nameAt + 6, valueAt)).trim();
+        String value = valueAt < 0 ? "" : line.substring(valueAt + 7).trim();
+        if (search != null && !search.isDone()) {
+            send("info string opção " + name + " ignorada durante a busca");
+            return;
+        }
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "hash":
+                int mb = Integer.parseInt(value);
+                ai.getTranspositionTable().resize(Math.max(1, Math.min(MAX_HASH_MB, mb)));
+                break;
+            case "threads":
+                ai.setThreads(Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value))));
+                break;
+            case "clear hash": ai.getTranspositionTable().clear(); break;
+            case "ponder": break; // Só avisa que a GUI pode mandar go ponder
+            default: send("info string opção desconhecida: " + name);
+        }
+    }
+
+    // Na thread da busca, ao fim de cada iteração
+    private void sendInfo(SearchInfo info) {
+        Position pos = searching;
+        StringBuilder sb = new StringBuilder("info depth ").append(info.depth)
+                .append(" score ").append(score(info.score))
+                .append(" nodes ").append(info.nodes)
+                .append(" nps ").append(info.nodesPerSecond())
+                .append(" time ").append(info.timeMillis);
+        if (pos != null) {
+            ai.principalVariation(pos, info.bestMove, info.depth, pv);
+            sb.append(" pv");
+            for (int i = 0; i < pv.size(); i++) sb.append(' ').append(Moves.toString(pv.get(i)));
+        }
+        send(sb.toString());
+    }
+
+    // "cp 35" ou, perto de MATE, "mate N" em lances (negativo se é a IA quem leva mate)
+    static String score(int score) {
+        if (score >= ChessAI.MATE - ChessAI.MAX_PLY) return "mate " + (ChessAI.MATE - score + 1) / 2;
+        if (score <= -ChessAI.MATE + ChessAI.MAX_PLY) return "mate " + -((ChessAI.MATE + score) / 2);
+        return "cp " + score;
+    }
+
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    void quit() {
+        stopAndWait();
+        searchThread.shutdownNow();
+        ai.shutdown();
+    }
+}
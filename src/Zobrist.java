@@ -0,0 +1,27 @@
+// Chaves de Zobrist: um número aleatório de 64 bits por (peça, casa), para a vez,
+// para os direitos de roque e para a coluna do en passant.
+// A chave da posição é o XOR das chaves presentes e é atualizada a cada lance.
+// Semente fixa: a mesma posição tem a mesma chave em qualquer execução (arquivos podem guardá-la).
+final class Zobrist {
+    private Zobrist() {}
+
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long BLACK_TO_MOVE;
+    static final long[] CASTLING = new long[16]; // Um por combinação de direitos de roque
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        java.util.SplittableRandom rnd = new java.util.SplittableRandom(0x5EEDC0DEL);
+        for (int code = 0; code < 12; code++)
+            for (int sq = 0; sq < 64; sq++)
+                PIECE_SQUARE[code][sq] = rnd.nextLong();
+        BLACK_TO_MOVE = rnd.nextLong();
+        // Combinações de roque: XOR das chaves de cada direito (sem direitos = 0)
+        long[] rights = {rnd.nextLong(), rnd.nextLong(), rnd.nextLong(), rnd.nextLong()};
+        for (int c = 0; c < 16; c++)
+            for (int i = 0; i < 4; i++)
+                if ((c & (1 << i)) != 0) CASTLING[c] ^= rights[i];
+        for (int f = 0; f < 8; f++)
+            EN_PASSANT_FILE[f] = rnd.nextLong();
+    }
+}